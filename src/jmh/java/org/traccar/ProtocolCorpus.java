@@ -0,0 +1,126 @@
+/*
+ * Copyright 2025 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar;
+
+import io.netty.buffer.Unpooled;
+import org.traccar.helper.DataConverter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Harvests sample messages from protocol decoder tests. Every {@code binary(...)}, {@code buffer(...)} and
+ * {@code text(...)} call with only string literal arguments becomes a sample, built the same way as in
+ * {@code ProtocolTest}. Calls with computed arguments are skipped.
+ */
+public final class ProtocolCorpus {
+
+    public static final String DIRECTORY_PROPERTY = "traccar.corpus";
+
+    private static final Pattern SAMPLE = Pattern.compile("\\b(binary|buffer|text)\\(");
+
+    private ProtocolCorpus() {
+    }
+
+    private static Path getDirectory() {
+        return Paths.get(System.getProperty(DIRECTORY_PROPERTY, "src/test/java/org/traccar/protocol"));
+    }
+
+    /**
+     * Returns samples for the decoder with the given name prefix, for example {@code Gt06}. Binary samples are
+     * returned as {@link io.netty.buffer.ByteBuf} and text samples as {@link String}.
+     */
+    public static List<Object> load(String name) throws IOException {
+        String source = Files.readString(getDirectory().resolve(name + "ProtocolDecoderTest.java"));
+        List<Object> samples = new ArrayList<>();
+        Matcher matcher = SAMPLE.matcher(source);
+        while (matcher.find()) {
+            String data = readLiterals(source, matcher.end());
+            if (data == null) {
+                continue;
+            }
+            samples.add(switch (matcher.group(1)) {
+                case "binary" -> Unpooled.wrappedBuffer(DataConverter.parseHex(data));
+                case "buffer" -> Unpooled.copiedBuffer(data, StandardCharsets.ISO_8859_1);
+                default -> data;
+            });
+        }
+        return samples;
+    }
+
+    /**
+     * Concatenates comma separated string literals up to the closing parenthesis. Returns null if any argument is
+     * not a literal.
+     */
+    private static String readLiterals(String source, int index) {
+        StringBuilder result = new StringBuilder();
+        boolean expectLiteral = true;
+        while (index < source.length()) {
+            char c = source.charAt(index++);
+            if (Character.isWhitespace(c)) {
+                continue;
+            } else if (c == '"' && expectLiteral) {
+                index = readLiteral(source, index, result);
+                if (index < 0) {
+                    return null;
+                }
+                expectLiteral = false;
+            } else if (c == ',' && !expectLiteral) {
+                expectLiteral = true;
+            } else if (c == ')' && !expectLiteral) {
+                return result.toString();
+            } else {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static int readLiteral(String source, int index, StringBuilder result) {
+        while (index < source.length()) {
+            char c = source.charAt(index++);
+            if (c == '"') {
+                return index;
+            } else if (c == '\\' && index < source.length()) {
+                c = source.charAt(index++);
+                switch (c) {
+                    case 'r' -> result.append('\r');
+                    case 'n' -> result.append('\n');
+                    case 't' -> result.append('\t');
+                    case 'b' -> result.append('\b');
+                    case 'f' -> result.append('\f');
+                    case '0' -> result.append('\0');
+                    case 'u' -> {
+                        result.append((char) Integer.parseInt(source.substring(index, index + 4), 16));
+                        index += 4;
+                    }
+                    default -> result.append(c);
+                }
+            } else {
+                result.append(c);
+            }
+        }
+        return -1;
+    }
+
+}
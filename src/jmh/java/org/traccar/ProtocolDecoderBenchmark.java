@@ -0,0 +1,152 @@
+/*
+ * Copyright 2025 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Guice;
+import io.netty.buffer.ByteBuf;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.traccar.config.Config;
+import org.traccar.database.CommandsManager;
+import org.traccar.database.MediaManager;
+import org.traccar.database.StatisticsManager;
+import org.traccar.model.Device;
+import org.traccar.session.ConnectionManager;
+import org.traccar.session.DeviceSession;
+import org.traccar.session.cache.CacheManager;
+
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Decodes the samples from a protocol decoder test one message per operation, so both the score and the
+ * {@code gc.alloc.rate.norm} metric are per message. Samples that throw outside of their test are skipped, samples
+ * that decode to nothing are kept because they still cost parsing work. Decoders are injected by Guice like in the
+ * server, with storage backed collaborators replaced by stubs.
+ * <p>
+ * Run with {@code ./gradlew jmh -PjmhIncludes=ProtocolDecoderBenchmark} for the default decoders, or add
+ * {@code -PjmhDecoders=Gt06,H02} or {@code -PjmhDecoders=all} to select decoders. The sorted summary is written to
+ * {@code build/reports/jmh/decoders.csv}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProtocolDecoderBenchmark {
+
+    @Param({"Teltonika", "Gt06", "Huabao", "H02", "Tk103", "Gl200Text", "Meiligao", "Mga"})
+    private String decoder;
+
+    private BaseProtocolDecoder protocolDecoder;
+    private Object[] samples;
+    private int index;
+
+    @Setup
+    public void setup() throws Exception {
+        protocolDecoder = createDecoder(decoder);
+        List<Object> decodable = new ArrayList<>();
+        for (Object sample : ProtocolCorpus.load(decoder)) {
+            try {
+                decodeSample(sample);
+                decodable.add(sample);
+            } catch (Exception e) {
+                // sample depends on test specific setup
+            }
+        }
+        if (decodable.isEmpty()) {
+            throw new IllegalStateException("No decodable samples for " + decoder);
+        }
+        samples = decodable.toArray();
+    }
+
+    private static BaseProtocolDecoder createDecoder(String name) throws Exception {
+        Class<?> decoderClass = Class.forName("org.traccar.protocol." + name + "ProtocolDecoder");
+        Constructor<?> constructor = decoderClass.getConstructors()[0];
+        Object[] arguments = new Object[constructor.getParameterCount()];
+        for (int i = 0; i < arguments.length; i++) {
+            Class<?> type = constructor.getParameterTypes()[i];
+            if (type == boolean.class) {
+                arguments[i] = false;
+            } else if (type == int.class) {
+                arguments[i] = 0;
+            }
+        }
+        BaseProtocolDecoder decoder = (BaseProtocolDecoder) constructor.newInstance(arguments);
+
+        // stub only mocks do not record invocations, so memory stays flat over millions of calls
+        var config = new Config();
+        var device = mock(Device.class, withSettings().stubOnly());
+        when(device.getId()).thenReturn(1L);
+        var cacheManager = mock(CacheManager.class, withSettings().stubOnly());
+        when(cacheManager.getConfig()).thenReturn(config);
+        when(cacheManager.getObject(eq(Device.class), anyLong())).thenReturn(device);
+        decoder.setCacheManager(cacheManager);
+        var deviceSession = new DeviceSession(
+                1L, "", null, mock(Protocol.class, withSettings().stubOnly()), null, null);
+        var connectionManager = mock(ConnectionManager.class, withSettings().stubOnly());
+        when(connectionManager.getDeviceSession(any(), any(), any(), any(String[].class))).thenReturn(deviceSession);
+
+        // other dependencies, like DeviceCipherCache, are created by Guice the same way as in the server
+        Guice.createInjector(new AbstractModule() {
+            @Override
+            protected void configure() {
+                bind(Config.class).toInstance(config);
+                bind(CacheManager.class).toInstance(cacheManager);
+                bind(ConnectionManager.class).toInstance(connectionManager);
+                bind(StatisticsManager.class).toInstance(mock(StatisticsManager.class, withSettings().stubOnly()));
+                bind(MediaManager.class).toInstance(mock(MediaManager.class, withSettings().stubOnly()));
+                bind(CommandsManager.class).toInstance(mock(CommandsManager.class, withSettings().stubOnly()));
+            }
+        }).injectMembers(decoder);
+        return decoder;
+    }
+
+    private Object decodeSample(Object sample) throws Exception {
+        if (sample instanceof ByteBuf buf) {
+            buf.readerIndex(0);
+        }
+        return protocolDecoder.decode(null, null, sample);
+    }
+
+    @Benchmark
+    public Object decode() throws Exception {
+        Object sample = samples[index];
+        index = index + 1 < samples.length ? index + 1 : 0;
+        return decodeSample(sample);
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2025 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.helper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Field;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compares reading numeric groups through {@link Parser} accessors with parsing substrings, on the main location
+ * patterns of high volume decoders and recorded messages from the decoder tests. Run with
+ * {@code ./gradlew jmh -PjmhIncludes=ParserBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParserBenchmark {
+
+    private static final Pattern NUMBER = Pattern.compile("-?\\d+(?:\\.\\d+)?");
+
+    private static final Map<String, String> SENTENCES = Map.of(
+            "H02ProtocolDecoder.PATTERN",
+            "*HQ,4970105243,V1,104000,A,2235.1777,N,11357.8913,E,000.27,235,130721,FFFFFBFF,460,11,d18e105,7752,6#",
+            "Tk103ProtocolDecoder.PATTERN",
+            "(086375304593BR00210119A2220.0160N11335.4073E0000014000309.84001000293L0000015FP23BS27F)",
+            "Gl200TextProtocolDecoder.PATTERN_FRI",
+            "+RESP:GTFRI,8020040200,866314060249032,,12194,10,1,3,0.0,0,20.1,-71.596533,-33.524718,"
+                    + "20230926200338,0730,0001,772A,052B253E,02,0,0.0,,,,,0,420000,,,,20230926200340,1549$");
+
+    @Param({
+            "H02ProtocolDecoder.PATTERN", "Tk103ProtocolDecoder.PATTERN", "Gl200TextProtocolDecoder.PATTERN_FRI"})
+    private String decoderPattern;
+
+    @Param({"substring", "accessor"})
+    private String mode;
+
+    private Pattern pattern;
+    private String sentence;
+    private boolean[] numeric;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        String[] name = decoderPattern.split("\\.");
+        Field field = Class.forName("org.traccar.protocol." + name[0]).getDeclaredField(name[1]);
+        field.setAccessible(true);
+        pattern = (Pattern) field.get(null);
+        sentence = SENTENCES.get(decoderPattern);
+        Matcher matcher = pattern.matcher(sentence);
+        if (!matcher.matches()) {
+            throw new IllegalStateException("Sentence does not match " + decoderPattern);
+        }
+        numeric = new boolean[matcher.groupCount()];
+        for (int i = 0; i < numeric.length; i++) {
+            String value = matcher.group(i + 1);
+            numeric[i] = value != null && NUMBER.matcher(value).matches();
+        }
+    }
+
+    @Benchmark
+    public double parse() {
+        Parser parser = new Parser(pattern, sentence);
+        if (!parser.matches()) {
+            throw new IllegalStateException();
+        }
+        boolean accessor = mode.equals("accessor");
+        double result = 0;
+        for (boolean number : numeric) {
+            if (!number) {
+                parser.skip(1);
+            } else if (accessor) {
+                result += parser.nextDouble(0);
+            } else {
+                result += Double.parseDouble(parser.next());
+            }
+        }
+        return result;
+    }
+
+}
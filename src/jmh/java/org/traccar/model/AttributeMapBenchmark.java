@@ -0,0 +1,102 @@
+/*
+ * Copyright 2025 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link LinkedHashMap} and {@link AttributeMap} as position attribute storage. The {@code fill} benchmark
+ * sets the attributes of a typical decoded message; with the gc profiler its normalized allocation rate approximates
+ * both the decode garbage and the retained size of one cached attribute set. Run with
+ * {@code ./gradlew jmh -PjmhIncludes=AttributeMapBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AttributeMapBenchmark {
+
+    @Param({"linked", "compact"})
+    private String map;
+
+    private ExtendedModel filled;
+
+    private ExtendedModel create() {
+        ExtendedModel model = new ExtendedModel();
+        model.setAttributes(map.equals("compact") ? new AttributeMap() : new LinkedHashMap<>());
+        return model;
+    }
+
+    private static void fill(ExtendedModel model, int i) {
+        model.set("priority", i & 3);
+        model.set(Position.KEY_SATELLITES, 9);
+        model.set(Position.KEY_EVENT, 240);
+        model.set(Position.KEY_IGNITION, true);
+        model.set(Position.KEY_MOTION, (i & 1) == 0);
+        model.set(Position.KEY_RSSI, 4);
+        model.set(Position.KEY_POWER, 12.874 + i % 100);
+        model.set(Position.KEY_BATTERY, 4.071);
+        model.set(Position.KEY_ODOMETER, 1_234_567L + i);
+        model.set(Position.KEY_HDOP, 0.8);
+        model.set(Position.KEY_OPERATOR, 24602);
+        model.set(Position.KEY_INPUT, 1);
+        model.set(Position.KEY_OUTPUT, 0);
+        model.set(Position.PREFIX_ADC + 1, 0.123 * (i % 1000));
+        model.set(Position.PREFIX_IO + 200, 0);
+        model.set(Position.PREFIX_IO + 69, 1);
+        model.set(Position.PREFIX_IO + 113, 87);
+        model.set(Position.KEY_FUEL_LEVEL, 43.5);
+        model.set(Position.KEY_RPM, 1450);
+        model.set(Position.KEY_OBD_SPEED, 56);
+    }
+
+    private int counter;
+
+    @Setup
+    public void setup() {
+        filled = create();
+        fill(filled, 7);
+    }
+
+    @Benchmark
+    public ExtendedModel fill() {
+        ExtendedModel model = create();
+        fill(model, counter++);
+        return model;
+    }
+
+    @Benchmark
+    public double read() {
+        return filled.getDouble(Position.KEY_POWER) + filled.getInteger(Position.KEY_SATELLITES)
+                + filled.getLong(Position.KEY_ODOMETER) + (filled.getBoolean(Position.KEY_IGNITION) ? 1 : 0);
+    }
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2025 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.protocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.traccar.config.Config;
+import org.traccar.helper.DataConverter;
+import org.traccar.session.DeviceCipherCache;
+import org.traccar.session.DeviceSession;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.SocketAddress;
+import java.security.GeneralSecurityException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding throughput of recorded MGA frames. Run with {@code ./gradlew jmh -PjmhIncludes=MgaProtocolDecoder}, the
+ * allocation rate is reported by the gc profiler.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MgaProtocolDecoderBenchmark {
+
+    private static final Map<String, String> FRAMES = Map.of(
+            "encrypted", "aa330040e20100acff4065c7042068890eeebd81bc8d4196ecd307d80c735123828d31eef92f1fc89016"
+                    + "73369df83d659fb673f657bb55",
+            "encryptedMultiple", "aa630040e20100acfc4065c7042068890eeebd81bc8d4196ecd307d80c735123828d31eef92f1fc89"
+                    + "01673369df83d659fb6730ec711b753f27fb45beeb25d3341312cd80fd16cc7579bf66f7c70cb78ca8b234c8d"
+                    + "922a5e8b2c9698647f974b9d51e2aaa3fe55",
+            "plain", "aa380040e20100ab01af112bd12316190000ac0f281fd2042e16030000f15365fbf0536500f11702b12e1403780096"
+                    + "00093c0106120f005f5737ca55");
+
+    @Param({"encrypted", "encryptedMultiple", "plain"})
+    private String frame;
+
+    private MgaProtocolDecoder decoder;
+    private ByteBuf buf;
+
+    @Setup
+    public void setup() throws GeneralSecurityException {
+        DeviceSession deviceSession = new DeviceSession(1, "123456", null, null, null, null);
+        decoder = new MgaProtocolDecoder(null) {
+            @Override
+            public DeviceSession getDeviceSession(Channel channel, SocketAddress remoteAddress, String... uniqueIds) {
+                return deviceSession;
+            }
+        };
+        DeviceCipherCache deviceCipherCache = new DeviceCipherCache(new Config());
+        deviceCipherCache.getCipher(deviceSession.getDeviceId(), () -> {
+            Cipher cipher = Cipher.getInstance("AES/CTR/NoPadding");
+            cipher.init(
+                    Cipher.DECRYPT_MODE,
+                    new SecretKeySpec(DataConverter.parseHex("000102030405060708090a0b0c0d0e0f"), "AES"),
+                    new IvParameterSpec(DataConverter.parseHex("101112131415161718191a1b1c1d1e1f")));
+            return cipher;
+        });
+        decoder.setDeviceCipherCache(deviceCipherCache);
+        buf = Unpooled.unreleasableBuffer(Unpooled.wrappedBuffer(ByteBufUtil.decodeHexDump(FRAMES.get(frame))));
+    }
+
+    @Benchmark
+    public Object decode() throws Exception {
+        buf.readerIndex(0);
+        return decoder.decode(null, null, buf);
+    }
+
+}
@@ -15,29 +15,92 @@
  */
 package org.traccar;
 
+import io.netty.bootstrap.AbstractBootstrap;
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.IoHandlerFactory;
 import io.netty.channel.MultiThreadIoEventLoopGroup;
+import io.netty.channel.ServerChannel;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollDatagramChannel;
+import io.netty.channel.epoll.EpollIoHandler;
+import io.netty.channel.epoll.EpollServerSocketChannel;
+import io.netty.channel.epoll.EpollSocketChannel;
 import io.netty.channel.nio.NioIoHandler;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioChannelOption;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.channel.unix.UnixChannelOption;
+import io.netty.channel.uring.IoUring;
+import io.netty.channel.uring.IoUringDatagramChannel;
+import io.netty.channel.uring.IoUringIoHandler;
+import io.netty.channel.uring.IoUringServerSocketChannel;
+import io.netty.channel.uring.IoUringSocketChannel;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
 
+import java.net.StandardSocketOptions;
+import java.util.Locale;
+
 @Singleton
 public class EventLoopGroupFactory {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventLoopGroupFactory.class);
+
+    public enum Transport {
+        NIO, EPOLL, IO_URING
+    }
+
+    private final Config config;
+    private final Transport transport;
     private final EventLoopGroup bossGroup;
     private final EventLoopGroup workerGroup;
 
     @Inject
     public EventLoopGroupFactory(Config config) {
-        var ioHandlerFactory = NioIoHandler.newFactory();
+        this.config = config;
+        transport = selectTransport(config.getString(Keys.SERVER_NETTY_TRANSPORT));
+        IoHandlerFactory ioHandlerFactory = switch (transport) {
+            case IO_URING -> IoUringIoHandler.newFactory();
+            case EPOLL -> EpollIoHandler.newFactory();
+            default -> NioIoHandler.newFactory();
+        };
         bossGroup = new MultiThreadIoEventLoopGroup(
                 config.getInteger(Keys.SERVER_NETTY_BOSS_THREADS), ioHandlerFactory);
         workerGroup = new MultiThreadIoEventLoopGroup(
                 config.getInteger(Keys.SERVER_NETTY_WORKER_THREADS), ioHandlerFactory);
     }
 
+    private static Transport selectTransport(String name) {
+        Transport requested = Transport.valueOf(name.toUpperCase(Locale.ROOT));
+        if (requested == Transport.IO_URING) {
+            if (IoUring.isAvailable()) {
+                return Transport.IO_URING;
+            }
+            LOGGER.warn("Transport io_uring is not available", IoUring.unavailabilityCause());
+        }
+        if (requested != Transport.NIO) {
+            if (Epoll.isAvailable()) {
+                return Transport.EPOLL;
+            }
+            LOGGER.warn("Transport epoll is not available", Epoll.unavailabilityCause());
+        }
+        return Transport.NIO;
+    }
+
+    public Transport getTransport() {
+        return transport;
+    }
+
     public EventLoopGroup getBossGroup() {
         return bossGroup;
     }
@@ -46,4 +109,64 @@ public class EventLoopGroupFactory {
         return workerGroup;
     }
 
+    public Class<? extends ServerChannel> getServerChannelClass() {
+        return switch (transport) {
+            case IO_URING -> IoUringServerSocketChannel.class;
+            case EPOLL -> EpollServerSocketChannel.class;
+            default -> NioServerSocketChannel.class;
+        };
+    }
+
+    public Class<? extends SocketChannel> getSocketChannelClass() {
+        return switch (transport) {
+            case IO_URING -> IoUringSocketChannel.class;
+            case EPOLL -> EpollSocketChannel.class;
+            default -> NioSocketChannel.class;
+        };
+    }
+
+    public Class<? extends DatagramChannel> getDatagramChannelClass() {
+        return switch (transport) {
+            case IO_URING -> IoUringDatagramChannel.class;
+            case EPOLL -> EpollDatagramChannel.class;
+            default -> NioDatagramChannel.class;
+        };
+    }
+
+    /**
+     * Applies transport specific socket options to a server bootstrap.
+     */
+    public void configureServer(ServerBootstrap bootstrap) {
+        if (config.getBoolean(Keys.SERVER_REUSE_PORT)) {
+            enableReusePort(bootstrap);
+        }
+        if (transport == Transport.EPOLL) {
+            int deferAccept = config.getInteger(Keys.SERVER_TCP_DEFER_ACCEPT);
+            if (deferAccept > 0) {
+                bootstrap.option(EpollChannelOption.TCP_DEFER_ACCEPT, deferAccept);
+            }
+        }
+    }
+
+    /**
+     * Applies transport specific socket options to a datagram bootstrap.
+     */
+    public void configureDatagram(Bootstrap bootstrap) {
+        if (config.getBoolean(Keys.SERVER_REUSE_PORT)) {
+            enableReusePort(bootstrap);
+        }
+    }
+
+    /**
+     * Allows binding several sockets to the same port. NIO relies on the JDK option, which is not supported on all
+     * platforms.
+     */
+    public void enableReusePort(AbstractBootstrap<?, ?> bootstrap) {
+        if (transport == Transport.NIO) {
+            bootstrap.option(NioChannelOption.of(StandardSocketOptions.SO_REUSEPORT), true);
+        } else {
+            bootstrap.option(UnixChannelOption.SO_REUSEPORT, true);
+        }
+    }
+
 }
@@ -32,6 +32,7 @@ import org.traccar.broadcast.BroadcastService;
 import org.traccar.broadcast.MulticastBroadcastService;
 import org.traccar.broadcast.RedisBroadcastService;
 import org.traccar.broadcast.NullBroadcastService;
+import org.traccar.broadcast.ShardManager;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
 import org.traccar.database.LdapProvider;
@@ -327,11 +328,12 @@ public class MainModule extends AbstractModule {
     @Singleton
     @Provides
     public static BroadcastService provideBroadcastService(
-            Config config, ExecutorService executorService, ObjectMapper objectMapper) throws IOException {
+            Config config, ExecutorService executorService, ObjectMapper objectMapper,
+            ShardManager shardManager) throws IOException {
         if (config.hasKey(Keys.BROADCAST_TYPE)) {
             return switch (config.getString(Keys.BROADCAST_TYPE)) {
-                case "multicast" -> new MulticastBroadcastService(config, executorService, objectMapper);
-                case "redis" -> new RedisBroadcastService(config, executorService, objectMapper);
+                case "multicast" -> new MulticastBroadcastService(config, executorService, objectMapper, shardManager);
+                case "redis" -> new RedisBroadcastService(config, executorService, objectMapper, shardManager);
                 default -> new NullBroadcastService();
             };
         }
@@ -377,6 +379,10 @@ public class MainModule extends AbstractModule {
     public static VelocityEngine provideVelocityEngine(Config config) {
         Properties properties = new Properties();
         properties.setProperty("resource.loader.file.path", config.getString(Keys.TEMPLATES_ROOT) + "/");
+        properties.setProperty("resource.loader.file.cache", "true");
+        properties.setProperty(
+                "resource.loader.file.modification_check_interval",
+                String.valueOf(config.getInteger(Keys.TEMPLATES_CHECK_INTERVAL)));
         properties.setProperty("web.url", WebHelper.retrieveWebUrl(config));
 
         VelocityEngine velocityEngine = new VelocityEngine();
@@ -56,10 +56,12 @@ import org.traccar.handler.events.MotionEventHandler;
 import org.traccar.handler.events.OverspeedEventHandler;
 import org.traccar.handler.network.AcknowledgementHandler;
 import org.traccar.helper.PositionLogger;
+import org.traccar.model.Event;
 import org.traccar.model.Position;
 import org.traccar.session.cache.CacheManager;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -184,8 +186,11 @@ public class ProcessingHandler extends ChannelInboundHandlerAdapter implements B
     }
 
     private void processEventHandlers(ChannelHandlerContext ctx, Position position) {
-        eventHandlers.forEach(handler -> handler.analyzePosition(
-                position, (event) -> notificationManager.updateEvents(Map.of(event, position))));
+        Map<Event, Position> events = new LinkedHashMap<>();
+        eventHandlers.forEach(handler -> handler.analyzePosition(position, (event) -> events.put(event, position)));
+        if (!events.isEmpty()) {
+            notificationManager.updateReferencedEvents(events); // device is referenced until processing finishes
+        }
         finishedProcessing(ctx, position, false);
     }
 
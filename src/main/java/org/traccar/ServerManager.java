@@ -1,5 +1,5 @@
 /*
- * Copyright 2012 - 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2012 - 2025 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -28,6 +28,7 @@ import java.io.IOException;
 import java.net.BindException;
 import java.net.ConnectException;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -67,6 +68,16 @@ public class ServerManager implements LifecycleObject {
         return protocolList.get(name);
     }
 
+    public List<TrackerServer.SocketStatistics> getSocketStatistics() {
+        List<TrackerServer.SocketStatistics> result = new ArrayList<>();
+        for (TrackerConnector connector : connectorList) {
+            if (connector instanceof TrackerServer server) {
+                result.addAll(server.getSocketStatistics());
+            }
+        }
+        return result;
+    }
+
     @Override
     public void start() throws Exception {
         for (TrackerConnector connector: connectorList) {
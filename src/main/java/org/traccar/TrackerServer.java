@@ -21,21 +21,25 @@ import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.Channel;
 import io.netty.channel.group.ChannelGroup;
 import io.netty.channel.group.DefaultChannelGroup;
-import io.netty.channel.socket.nio.NioDatagramChannel;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.handler.ssl.SslHandler;
 import io.netty.util.concurrent.GlobalEventExecutor;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
+import org.traccar.handler.network.SocketStatisticsHandler;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLEngine;
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public abstract class TrackerServer implements TrackerConnector {
 
+    private final String protocol;
     private final boolean datagram;
     private final boolean secure;
+    private final int sockets;
 
     @SuppressWarnings("rawtypes")
     private final AbstractBootstrap bootstrap;
@@ -44,6 +48,10 @@ public abstract class TrackerServer implements TrackerConnector {
     private final String address;
 
     private final ChannelGroup channelGroup = new DefaultChannelGroup(GlobalEventExecutor.INSTANCE);
+    private final List<SocketStatisticsHandler> socketStatistics = new CopyOnWriteArrayList<>();
+
+    public record SocketStatistics(String protocol, int port, int index, String thread, long messages, long bytes) {
+    }
 
     @Override
     public boolean isDatagram() {
@@ -56,6 +64,7 @@ public abstract class TrackerServer implements TrackerConnector {
     }
 
     public TrackerServer(Config config, String protocol, boolean datagram) {
+        this.protocol = protocol;
         secure = config.getBoolean(Keys.PROTOCOL_SSL.withPrefix(protocol));
         address = config.getString(Keys.PROTOCOL_ADDRESS.withPrefix(protocol));
         port = config.getInteger(Keys.PROTOCOL_PORT.withPrefix(protocol));
@@ -80,17 +89,25 @@ public abstract class TrackerServer implements TrackerConnector {
         };
 
         this.datagram = datagram;
+        sockets = datagram ? Math.max(config.getInteger(Keys.PROTOCOL_DATAGRAM_SOCKETS.withPrefix(protocol)), 1) : 1;
         var eventLoopGroupFactory = Main.getInjector().getInstance(EventLoopGroupFactory.class);
         if (datagram) {
-            bootstrap = new Bootstrap()
+            var datagramBootstrap = new Bootstrap()
                     .group(eventLoopGroupFactory.getWorkerGroup())
-                    .channel(NioDatagramChannel.class)
+                    .channel(eventLoopGroupFactory.getDatagramChannelClass())
                     .handler(pipelineFactory);
+            eventLoopGroupFactory.configureDatagram(datagramBootstrap);
+            if (sockets > 1) {
+                eventLoopGroupFactory.enableReusePort(datagramBootstrap);
+            }
+            bootstrap = datagramBootstrap;
         } else {
-            bootstrap = new ServerBootstrap()
+            var serverBootstrap = new ServerBootstrap()
                     .group(eventLoopGroupFactory.getBossGroup(), eventLoopGroupFactory.getWorkerGroup())
-                    .channel(NioServerSocketChannel.class)
+                    .channel(eventLoopGroupFactory.getServerChannelClass())
                     .childHandler(pipelineFactory);
+            eventLoopGroupFactory.configureServer(serverBootstrap);
+            bootstrap = serverBootstrap;
         }
     }
 
@@ -118,15 +135,37 @@ public abstract class TrackerServer implements TrackerConnector {
             endpoint = new InetSocketAddress(address, port);
         }
 
-        Channel channel = bootstrap.bind(endpoint).syncUninterruptibly().channel();
-        if (channel != null) {
-            getChannelGroup().add(channel);
+        for (int i = 0; i < sockets; i++) {
+            Channel channel = bootstrap.bind(endpoint).syncUninterruptibly().channel();
+            if (channel != null) {
+                getChannelGroup().add(channel);
+                if (datagram) {
+                    var handler = new SocketStatisticsHandler();
+                    channel.pipeline().addFirst(handler);
+                    socketStatistics.add(handler);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns counters of every bound datagram socket. Uneven counters mean that only a few device addresses send
+     * most of the traffic, because the kernel assigns sockets by source address.
+     */
+    public List<SocketStatistics> getSocketStatistics() {
+        List<SocketStatistics> result = new ArrayList<>();
+        for (int i = 0; i < socketStatistics.size(); i++) {
+            SocketStatisticsHandler handler = socketStatistics.get(i);
+            result.add(new SocketStatistics(
+                    protocol, port, i, handler.getThread(), handler.getMessages(), handler.getBytes()));
         }
+        return result;
     }
 
     @Override
     public void stop() {
         channelGroup.close().awaitUninterruptibly();
+        socketStatistics.clear();
     }
 
 }
@@ -87,6 +87,7 @@ public class AsyncSocket implements Session.Listener.AutoDemanding, ConnectionMa
             JsonNode json = objectMapper.readTree(message);
             if (json.hasNonNull("logs")) {
                 includeLogs = json.get("logs").asBoolean();
+                connectionManager.updateLogListener(this, includeLogs);
             }
         } catch (JsonProcessingException e) {
             LOGGER.warn("Socket JSON parsing error", e);
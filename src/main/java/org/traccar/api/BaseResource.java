@@ -25,6 +25,8 @@ import jakarta.ws.rs.core.SecurityContext;
 
 public class BaseResource {
 
+    public static final String HEADER_NEXT_CURSOR = "X-Next-Cursor";
+
     @Context
     private SecurityContext securityContext;
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2015 - 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2015 - 2025 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -39,6 +39,7 @@ public class CorsResponseFilter implements ContainerResponseFilter {
     private static final String ORIGIN_ALL = "*";
     private static final String HEADERS_ALL = "origin, content-type, accept, authorization";
     private static final String METHODS_ALL = "GET, POST, PUT, DELETE, OPTIONS";
+    private static final String HEADERS_EXPOSED = "x-next-cursor";
 
     @Override
     public void filter(ContainerRequestContext request, ContainerResponseContext response) throws IOException {
@@ -54,6 +55,10 @@ public class CorsResponseFilter implements ContainerResponseFilter {
             response.getHeaders().add(HttpHeaderNames.ACCESS_CONTROL_ALLOW_METHODS.toString(), METHODS_ALL);
         }
 
+        if (!response.getHeaders().containsKey(HttpHeaderNames.ACCESS_CONTROL_EXPOSE_HEADERS.toString())) {
+            response.getHeaders().add(HttpHeaderNames.ACCESS_CONTROL_EXPOSE_HEADERS.toString(), HEADERS_EXPOSED);
+        }
+
         if (!response.getHeaders().containsKey(HttpHeaderNames.ACCESS_CONTROL_ALLOW_ORIGIN.toString())) {
             String origin = request.getHeaderString(HttpHeaderNames.ORIGIN.toString());
             if (origin == null) {
@@ -27,10 +27,12 @@ import org.traccar.database.MediaManager;
 import org.traccar.helper.LogAction;
 import org.traccar.model.Device;
 import org.traccar.model.DeviceAccumulators;
+import org.traccar.model.LogRecord;
 import org.traccar.model.Permission;
 import org.traccar.model.Position;
 import org.traccar.model.User;
 import org.traccar.session.ConnectionManager;
+import org.traccar.session.DeviceLogBuffer;
 import org.traccar.session.cache.CacheManager;
 import org.traccar.storage.StorageException;
 import org.traccar.storage.query.Columns;
@@ -77,6 +79,9 @@ public class DeviceResource extends BaseObjectResource<Device> {
     @Inject
     private ConnectionManager connectionManager;
 
+    @Inject
+    private DeviceLogBuffer deviceLogBuffer;
+
     @Inject
     private BroadcastService broadcastService;
 
@@ -147,6 +152,13 @@ public class DeviceResource extends BaseObjectResource<Device> {
         }
     }
 
+    @Path("{id}/log")
+    @GET
+    public List<LogRecord> getLog(@PathParam("id") long deviceId) throws StorageException {
+        permissionsService.checkPermission(Device.class, getUserId(), deviceId);
+        return deviceLogBuffer.get(deviceId);
+    }
+
     @Path("{id}/accumulators")
     @PUT
     public Response updateAccumulators(DeviceAccumulators entity) throws Exception {
@@ -27,6 +27,7 @@ import org.traccar.reports.KmlExportProvider;
 import org.traccar.storage.StorageException;
 import org.traccar.storage.query.Columns;
 import org.traccar.storage.query.Condition;
+import org.traccar.storage.query.Cursor;
 import org.traccar.storage.query.Request;
 
 import jakarta.inject.Inject;
@@ -46,7 +47,6 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.LinkedList;
-import java.util.stream.Stream;
 
 @Path("positions")
 @Produces(MediaType.APPLICATION_JSON)
@@ -63,9 +63,10 @@ public class PositionResource extends BaseResource {
     private GpxExportProvider gpxExportProvider;
 
     @GET
-    public Stream<Position> getJson(
+    public Response getJson(
             @QueryParam("deviceId") long deviceId, @QueryParam("id") List<Long> positionIds,
-            @QueryParam("geofenceId") long geofenceId, @QueryParam("from") Date from, @QueryParam("to") Date to)
+            @QueryParam("geofenceId") long geofenceId, @QueryParam("from") Date from, @QueryParam("to") Date to,
+            @QueryParam("limit") int limit, @QueryParam("cursor") String cursor)
             throws StorageException {
         if (!positionIds.isEmpty()) {
             var positions = new ArrayList<Position>();
@@ -75,7 +76,7 @@ public class PositionResource extends BaseResource {
                 permissionsService.checkPermission(Device.class, getUserId(), position.getDeviceId());
                 positions.add(position);
             }
-            return positions.stream();
+            return Response.ok(positions.stream()).build();
         } else if (deviceId > 0) {
             permissionsService.checkPermission(Device.class, getUserId(), deviceId);
             if (from != null && to != null) {
@@ -84,14 +85,31 @@ public class PositionResource extends BaseResource {
                 Geofence geofence = geofenceId == 0 ? null : storage.getObject(Geofence.class, new Request(
                         new Columns.All(), new Condition.Equals("id", geofenceId)));
 
-                return PositionUtil.getPositionsStream(storage, deviceId, from, to)
-                        .filter(position -> geofence == null || geofence.containsPosition(position));
+                if (limit > 0) {
+                    Cursor start = cursor != null ? Cursor.decode(cursor) : null;
+                    if (start != null && start.getDeviceId() != deviceId) {
+                        throw new IllegalArgumentException("Cursor belongs to a different device");
+                    }
+                    var positions = PositionUtil.getPositionsPage(
+                            storage, deviceId, from, to, start, limit,
+                            geofence != null ? geofence::containsPosition : null);
+                    var response = Response.ok(positions.stream());
+                    if (positions.size() == limit) {
+                        Position last = positions.get(positions.size() - 1);
+                        response.header(
+                                HEADER_NEXT_CURSOR, new Cursor(deviceId, last.getFixTime(), last.getId()).encode());
+                    }
+                    return response.build();
+                }
+
+                return Response.ok(PositionUtil.getPositionsStream(storage, deviceId, from, to)
+                        .filter(position -> geofence == null || geofence.containsPosition(position))).build();
             } else {
-                return storage.getObjectsStream(Position.class, new Request(
-                        new Columns.All(), new Condition.LatestPositions(deviceId)));
+                return Response.ok(storage.getObjectsStream(Position.class, new Request(
+                        new Columns.All(), new Condition.LatestPositions(deviceId)))).build();
             }
         } else {
-            return PositionUtil.getLatestPositions(storage, getUserId()).stream();
+            return Response.ok(PositionUtil.getLatestPositions(storage, getUserId()).stream()).build();
         }
     }
 
@@ -38,6 +38,7 @@ import org.traccar.reports.model.StopReportItem;
 import org.traccar.reports.model.SummaryReportItem;
 import org.traccar.reports.model.TripReportItem;
 import org.traccar.storage.StorageException;
+import org.traccar.storage.query.Cursor;
 
 import jakarta.inject.Inject;
 import jakarta.ws.rs.Consumes;
@@ -54,7 +55,6 @@ import jakarta.ws.rs.core.StreamingOutput;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
-import java.util.stream.Stream;
 
 @Path("reports")
 @Produces(MediaType.APPLICATION_JSON)
@@ -168,16 +168,31 @@ public class ReportResource extends SimpleObjectResource<Report> {
 
     @Path("events")
     @GET
-    public Stream<Event> getEvents(
+    public Response getEvents(
             @QueryParam("deviceId") List<Long> deviceIds,
             @QueryParam("groupId") List<Long> groupIds,
             @QueryParam("type") List<String> types,
             @QueryParam("alarm") List<String> alarms,
             @QueryParam("from") Date from,
-            @QueryParam("to") Date to) throws StorageException {
+            @QueryParam("to") Date to,
+            @QueryParam("limit") int limit,
+            @QueryParam("cursor") String cursor) throws StorageException {
         permissionsService.checkRestriction(getUserId(), UserRestrictions::getDisableReports);
         actionLogger.report(request, getUserId(), false, "events", from, to, deviceIds, groupIds);
-        return eventsReportProvider.getObjects(getUserId(), deviceIds, groupIds, types, alarms, from, to);
+        if (limit > 0) {
+            var events = eventsReportProvider.getObjectsPage(
+                    getUserId(), deviceIds, groupIds, types, alarms, from, to,
+                    cursor != null ? Cursor.decode(cursor) : null, limit);
+            var response = Response.ok(events.stream());
+            if (events.size() == limit) {
+                Event last = events.get(events.size() - 1);
+                response.header(HEADER_NEXT_CURSOR,
+                        new Cursor(last.getDeviceId(), last.getEventTime(), last.getId()).encode());
+            }
+            return response.build();
+        }
+        return Response.ok(eventsReportProvider.getObjects(
+                getUserId(), deviceIds, groupIds, types, alarms, from, to)).build();
     }
 
     @Path("events")
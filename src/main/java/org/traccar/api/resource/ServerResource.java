@@ -17,6 +17,8 @@ package org.traccar.api.resource;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.ws.rs.core.Context;
+import org.traccar.ServerManager;
+import org.traccar.TrackerServer;
 import org.traccar.api.BaseResource;
 import org.traccar.model.ObjectOperation;
 import org.traccar.config.Config;
@@ -27,6 +29,7 @@ import org.traccar.helper.Log;
 import org.traccar.helper.LogAction;
 import org.traccar.helper.model.UserUtil;
 import org.traccar.mail.MailManager;
+import org.traccar.notification.NotificationDispatcher;
 import org.traccar.model.Server;
 import org.traccar.model.User;
 import org.traccar.session.cache.CacheManager;
@@ -73,6 +76,12 @@ public class ServerResource extends BaseResource {
     @Inject
     private MailManager mailManager;
 
+    @Inject
+    private ServerManager serverManager;
+
+    @Inject
+    private NotificationDispatcher notificationDispatcher;
+
     @Inject
     @Nullable
     private SmsManager smsManager;
@@ -177,6 +186,20 @@ public class ServerResource extends BaseResource {
         return cacheManager.toString();
     }
 
+    @Path("sockets")
+    @GET
+    public Collection<TrackerServer.SocketStatistics> sockets() throws StorageException {
+        permissionsService.checkAdmin(getUserId());
+        return serverManager.getSocketStatistics();
+    }
+
+    @Path("notifications")
+    @GET
+    public Collection<NotificationDispatcher.Channel> notifications() throws StorageException {
+        permissionsService.checkAdmin(getUserId());
+        return notificationDispatcher.getChannels();
+    }
+
     @Path("reboot")
     @POST
     public void reboot() throws StorageException {
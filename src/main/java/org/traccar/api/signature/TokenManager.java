@@ -25,6 +25,8 @@ import jakarta.inject.Singleton;
 import java.io.IOException;
 import java.security.GeneralSecurityException;
 import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 @Singleton
@@ -35,6 +37,11 @@ public class TokenManager {
     private final ObjectMapper objectMapper;
     private final CryptoManager cryptoManager;
 
+    private record CachedToken(String token, Date expiration) {
+    }
+
+    private final Map<Long, CachedToken> cachedTokens = new ConcurrentHashMap<>();
+
     public static class TokenData {
         @JsonProperty("u")
         private long userId;
@@ -56,8 +63,19 @@ public class TokenManager {
         this.cryptoManager = cryptoManager;
     }
 
+    /**
+     * Returns a token with the default expiration. Tokens are reused while at least half of their validity remains,
+     * so bulk notifications do not have to sign a new token for every message.
+     */
     public String generateToken(long userId) throws IOException, GeneralSecurityException, StorageException {
-        return generateToken(userId, null);
+        long threshold = System.currentTimeMillis() + TimeUnit.DAYS.toMillis(DEFAULT_EXPIRATION_DAYS) / 2;
+        CachedToken cached = cachedTokens.get(userId);
+        if (cached == null || cached.expiration.getTime() < threshold) {
+            Date expiration = new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(DEFAULT_EXPIRATION_DAYS));
+            cached = new CachedToken(generateToken(userId, expiration), expiration);
+            cachedTokens.put(userId, cached);
+        }
+        return cached.token;
     }
 
     public String generateToken(
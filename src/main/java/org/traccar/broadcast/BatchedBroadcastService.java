@@ -0,0 +1,358 @@
+/*
+ * Copyright 2025 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.broadcast;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.protobuf.broadcast.Broadcast;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Base class for cluster broadcast transports. Outgoing messages are encoded with {@link BroadcastCodec} and
+ * collected for up to the configured flush interval, then sent together as one batch.
+ * <p>
+ * With interest routing, every node advertises the devices it needs updates for, and position and device updates
+ * are only sent to the nodes interested in that device. Changes are advertised as deltas on the next flush, and a
+ * full snapshot is sent every 10 seconds and whenever a new node joins.
+ */
+public abstract class BatchedBroadcastService extends BaseBroadcastService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BatchedBroadcastService.class);
+
+    private static final long ANNOUNCE_INTERVAL = 10_000;
+    private static final long INTEREST_TIMEOUT = 3 * ANNOUNCE_INTERVAL;
+
+    private final String id = UUID.randomUUID().toString();
+
+    private final BroadcastCodec codec;
+    private final long flushInterval;
+    private final int maxBatchSize;
+    private final boolean routing;
+
+    private static final class Pending {
+        private final List<Broadcast.Message> messages = new ArrayList<>();
+        private int size;
+    }
+
+    private final Map<String, Pending> pending = new HashMap<>();
+
+    private static final class NodeInterest {
+        private final Set<Long> deviceIds = ConcurrentHashMap.newKeySet();
+        private volatile long expiration;
+    }
+
+    private final Map<String, NodeInterest> interests = new ConcurrentHashMap<>();
+    private Supplier<Collection<Long>> interestSupplier;
+
+    private final Set<Long> announced = new HashSet<>();
+    private final Set<Long> added = new HashSet<>();
+    private final Set<Long> removed = new HashSet<>();
+    private boolean interestQueued;
+
+    private volatile ScheduledExecutorService executor;
+
+    protected BatchedBroadcastService(
+            Config config, ObjectMapper objectMapper, ShardManager shardManager, int maxBatchSize) {
+        this.codec = new BroadcastCodec(objectMapper);
+        this.flushInterval = config.getLong(Keys.BROADCAST_FLUSH_INTERVAL);
+        this.maxBatchSize = maxBatchSize;
+        this.routing = config.getBoolean(Keys.BROADCAST_INTEREST) || shardManager.isEnabled();
+    }
+
+    @Override
+    public boolean singleInstance() {
+        return false;
+    }
+
+    /**
+     * Unique address of this node.
+     */
+    protected String getId() {
+        return id;
+    }
+
+    @Override
+    public void registerInterest(Supplier<Collection<Long>> supplier) {
+        interestSupplier = supplier;
+    }
+
+    /**
+     * Records an interest change. It is sent from the flush thread, never from the caller, because callers can hold
+     * locks. Without a flush interval, one send is queued for all changes made until it runs.
+     */
+    @Override
+    public void updateInterest(long deviceId, boolean interested) {
+        if (!routing) {
+            return;
+        }
+        boolean queue = false;
+        synchronized (announced) {
+            if (interested ? announced.add(deviceId) : announced.remove(deviceId)) {
+                if (interested) {
+                    if (!removed.remove(deviceId)) {
+                        added.add(deviceId);
+                    }
+                } else {
+                    if (!added.remove(deviceId)) {
+                        removed.add(deviceId);
+                    }
+                }
+                queue = flushInterval <= 0 && !interestQueued;
+                interestQueued = true;
+            }
+        }
+        ScheduledExecutorService executor = this.executor;
+        if (queue && executor != null) {
+            executor.execute(this::flushInterest);
+        }
+    }
+
+    private static Long getDeviceId(BroadcastMessage message) {
+        if (message.getPosition() != null) {
+            return message.getPosition().getDeviceId();
+        } else if (message.getDevice() != null) {
+            return message.getDevice().getId();
+        }
+        return null;
+    }
+
+    /**
+     * Returns target nodes for the message or {@code null} if it has to go to all nodes.
+     */
+    private List<String> getTargets(BroadcastMessage message) {
+        Long deviceId = getDeviceId(message);
+        if (!routing || deviceId == null) {
+            return null;
+        }
+        long currentTime = System.currentTimeMillis();
+        List<String> targets = new ArrayList<>();
+        interests.forEach((node, interest) -> {
+            if (interest.expiration > currentTime && interest.deviceIds.contains(deviceId)) {
+                targets.add(node);
+            }
+        });
+        return targets;
+    }
+
+    @Override
+    protected void sendMessage(BroadcastMessage message) {
+        List<String> targets = getTargets(message);
+        if (targets != null && targets.isEmpty()) {
+            return;
+        }
+        Broadcast.Message data;
+        try {
+            data = codec.encodeMessage(message);
+        } catch (IOException e) {
+            LOGGER.warn("Broadcast encoding failed", e);
+            return;
+        }
+        if (targets == null) {
+            enqueue(null, data);
+        } else {
+            for (String target : targets) {
+                enqueue(target, data);
+            }
+        }
+    }
+
+    private void enqueue(String target, Broadcast.Message data) {
+        if (flushInterval <= 0) {
+            send(target, List.of(data));
+            return;
+        }
+        List<Broadcast.Message> batch = null;
+        synchronized (pending) {
+            Pending queue = pending.computeIfAbsent(target, key -> new Pending());
+            if (!queue.messages.isEmpty() && queue.size + data.getSerializedSize() > maxBatchSize) {
+                batch = new ArrayList<>(queue.messages);
+                queue.messages.clear();
+                queue.size = 0;
+            }
+            queue.messages.add(data);
+            queue.size += data.getSerializedSize();
+        }
+        if (batch != null) {
+            send(target, batch);
+        }
+    }
+
+    private void flushInterest() {
+        BroadcastMessage.Interest delta = null;
+        synchronized (announced) {
+            interestQueued = false;
+            if (!added.isEmpty() || !removed.isEmpty()) {
+                delta = createInterest(false, false, added);
+                delta.setRemovedDeviceIds(removed.stream().mapToLong(Long::longValue).toArray());
+                added.clear();
+                removed.clear();
+            }
+        }
+        if (delta != null) {
+            BroadcastMessage message = new BroadcastMessage();
+            message.setInterest(delta);
+            sendMessage(message);
+        }
+    }
+
+    protected void flush() {
+        flushInterest();
+
+        Map<String, List<Broadcast.Message>> batches = new HashMap<>();
+        synchronized (pending) {
+            pending.forEach((target, queue) -> {
+                if (!queue.messages.isEmpty()) {
+                    batches.put(target, new ArrayList<>(queue.messages));
+                    queue.messages.clear();
+                    queue.size = 0;
+                }
+            });
+        }
+        batches.forEach(this::send);
+    }
+
+    private synchronized void send(String target, List<Broadcast.Message> batch) {
+        try {
+            sendBatch(target, codec.encodeBatch(id, target, batch));
+        } catch (Exception e) {
+            LOGGER.warn("Broadcast failed", e);
+        }
+    }
+
+    /**
+     * Sends an encoded batch to the given node or to all nodes if the target is {@code null}. Calls are serialized,
+     * so implementations can use a single connection.
+     */
+    protected abstract void sendBatch(String target, byte[] data) throws Exception;
+
+    protected void handleBatch(byte[] data) {
+        BroadcastCodec.Batch batch;
+        try {
+            batch = codec.decodeBatch(data);
+        } catch (IOException e) {
+            LOGGER.warn("Broadcast decoding failed", e);
+            return;
+        }
+        if (id.equals(batch.sender()) || batch.target() != null && !id.equals(batch.target())) {
+            return;
+        }
+        for (BroadcastMessage message : batch.messages()) {
+            try {
+                if (message.getInterest() != null) {
+                    handleInterest(message.getInterest());
+                } else {
+                    handleMessage(message);
+                }
+            } catch (Exception e) {
+                LOGGER.warn("Broadcast handleMessage failed", e);
+            }
+        }
+    }
+
+    private void handleInterest(BroadcastMessage.Interest interest) {
+        NodeInterest nodeInterest = interests.computeIfAbsent(interest.getNode(), key -> new NodeInterest());
+        if (interest.getFull()) {
+            nodeInterest.deviceIds.clear();
+        }
+        for (long deviceId : interest.getDeviceIds()) {
+            nodeInterest.deviceIds.add(deviceId);
+        }
+        for (long deviceId : interest.getRemovedDeviceIds()) {
+            nodeInterest.deviceIds.remove(deviceId);
+        }
+        nodeInterest.expiration = System.currentTimeMillis() + INTEREST_TIMEOUT;
+        if (interest.getRequest() && routing) {
+            announce(false);
+        }
+    }
+
+    private BroadcastMessage.Interest createInterest(boolean full, boolean request, Collection<Long> deviceIds) {
+        var interest = new BroadcastMessage.Interest();
+        interest.setNode(id);
+        interest.setFull(full);
+        interest.setRequest(request);
+        interest.setDeviceIds(deviceIds.stream().mapToLong(Long::longValue).toArray());
+        interest.setRemovedDeviceIds(new long[0]);
+        return interest;
+    }
+
+    /**
+     * Sends a full snapshot of the local interest. The snapshot also resets pending deltas.
+     */
+    protected void announce(boolean request) {
+        Supplier<Collection<Long>> supplier = interestSupplier;
+        Collection<Long> deviceIds = supplier != null ? supplier.get() : List.of();
+        BroadcastMessage.Interest interest;
+        synchronized (announced) {
+            announced.clear();
+            announced.addAll(deviceIds);
+            added.clear();
+            removed.clear();
+            interestQueued = false;
+            interest = createInterest(true, request, announced);
+        }
+        BroadcastMessage message = new BroadcastMessage();
+        message.setInterest(interest);
+        sendMessage(message);
+    }
+
+    @Override
+    public void start() throws IOException {
+        if (flushInterval > 0 || routing) {
+            executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "broadcast-flush");
+                thread.setDaemon(true);
+                return thread;
+            });
+            if (flushInterval > 0) {
+                executor.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+            }
+            if (routing) {
+                executor.execute(() -> announce(true));
+                executor.scheduleWithFixedDelay(
+                        () -> announce(false), ANNOUNCE_INTERVAL, ANNOUNCE_INTERVAL, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService executor = this.executor;
+        if (executor != null) {
+            executor.shutdown();
+            this.executor = null;
+        }
+        flush();
+    }
+
+}
@@ -0,0 +1,238 @@
+/*
+ * Copyright 2025 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.broadcast;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.ByteString;
+import org.traccar.model.Network;
+import org.traccar.model.Position;
+import org.traccar.protobuf.broadcast.Broadcast;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * Binary encoding of broadcast batches using the messages from {@code Broadcast.proto}. Position updates, which make
+ * up most of the traffic, are encoded field by field. Other messages are rare and are embedded as JSON.
+ */
+public class BroadcastCodec {
+
+    public record Batch(String sender, String target, List<BroadcastMessage> messages) {
+    }
+
+    private final ObjectMapper objectMapper;
+
+    public BroadcastCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public Broadcast.Message encodeMessage(BroadcastMessage message) throws IOException {
+        var builder = Broadcast.Message.newBuilder();
+        if (message.getPosition() != null) {
+            builder.setPosition(encodePosition(message.getPosition()));
+        } else if (message.getInterest() != null) {
+            builder.setInterest(encodeInterest(message.getInterest()));
+        } else {
+            builder.setJson(ByteString.copyFrom(objectMapper.writeValueAsBytes(message)));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Encodes a batch for the given target node or for all nodes if the target is {@code null}.
+     */
+    public byte[] encodeBatch(String sender, String target, List<Broadcast.Message> messages) {
+        var builder = Broadcast.Batch.newBuilder()
+                .setSender(sender)
+                .addAllMessages(messages);
+        if (target != null) {
+            builder.setTarget(target);
+        }
+        return builder.build().toByteArray();
+    }
+
+    private static Broadcast.Interest encodeInterest(BroadcastMessage.Interest interest) {
+        var builder = Broadcast.Interest.newBuilder()
+                .setNode(interest.getNode())
+                .setFull(interest.getFull())
+                .setRequest(interest.getRequest());
+        if (interest.getDeviceIds() != null) {
+            encodeIds(interest.getDeviceIds(), builder::addDeviceIdDeltas);
+        }
+        if (interest.getRemovedDeviceIds() != null) {
+            encodeIds(interest.getRemovedDeviceIds(), builder::addRemovedDeviceIdDeltas);
+        }
+        return builder.build();
+    }
+
+    private static void encodeIds(long[] values, LongConsumer consumer) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        long previous = 0;
+        for (long value : sorted) {
+            consumer.accept(value - previous);
+            previous = value;
+        }
+    }
+
+    private Broadcast.Position encodePosition(Position position) throws IOException {
+        var builder = Broadcast.Position.newBuilder()
+                .setId(position.getId())
+                .setDeviceId(position.getDeviceId())
+                .setValid(position.getValid())
+                .setLatitude(position.getLatitude())
+                .setLongitude(position.getLongitude())
+                .setAltitude(position.getAltitude())
+                .setSpeed(position.getSpeed())
+                .setCourse(position.getCourse())
+                .setAccuracy(position.getAccuracy());
+        if (position.getProtocol() != null) {
+            builder.setProtocol(position.getProtocol());
+        }
+        if (position.getServerTime() != null) {
+            builder.setServerTime(position.getServerTime().getTime());
+        }
+        if (position.getDeviceTime() != null) {
+            builder.setDeviceTime(position.getDeviceTime().getTime());
+        }
+        if (position.getFixTime() != null) {
+            builder.setFixTime(position.getFixTime().getTime());
+        }
+        if (position.getAddress() != null) {
+            builder.setAddress(position.getAddress());
+        }
+        if (position.getNetwork() != null) {
+            builder.setNetwork(ByteString.copyFrom(objectMapper.writeValueAsBytes(position.getNetwork())));
+        }
+        if (position.getGeofenceIds() != null) {
+            builder.addAllGeofenceIds(position.getGeofenceIds());
+        }
+        for (Map.Entry<String, Object> entry : position.getAttributes().entrySet()) {
+            builder.addAttributes(encodeAttribute(entry.getKey(), entry.getValue()));
+        }
+        return builder.build();
+    }
+
+    private Broadcast.Attribute encodeAttribute(String key, Object value) throws IOException {
+        var builder = Broadcast.Attribute.newBuilder().setKey(key);
+        if (value instanceof Boolean booleanValue) {
+            builder.setBoolValue(booleanValue);
+        } else if (value instanceof Integer integerValue) {
+            builder.setIntValue(integerValue);
+        } else if (value instanceof Long longValue) {
+            builder.setLongValue(longValue);
+        } else if (value instanceof Double || value instanceof Float) {
+            builder.setDoubleValue(((Number) value).doubleValue());
+        } else if (value instanceof String stringValue) {
+            builder.setStringValue(stringValue);
+        } else if (value != null) {
+            builder.setJsonValue(ByteString.copyFrom(objectMapper.writeValueAsBytes(value)));
+        }
+        return builder.build();
+    }
+
+    public Batch decodeBatch(byte[] data) throws IOException {
+        Broadcast.Batch batch = Broadcast.Batch.parseFrom(data);
+        List<BroadcastMessage> messages = new ArrayList<>(batch.getMessagesCount());
+        for (Broadcast.Message message : batch.getMessagesList()) {
+            messages.add(decodeMessage(message));
+        }
+        return new Batch(batch.getSender(), batch.hasTarget() ? batch.getTarget() : null, messages);
+    }
+
+    private BroadcastMessage decodeMessage(Broadcast.Message data) throws IOException {
+        BroadcastMessage message;
+        switch (data.getBodyCase()) {
+            case POSITION -> {
+                message = new BroadcastMessage();
+                message.setPosition(decodePosition(data.getPosition()));
+            }
+            case JSON -> message = objectMapper.readValue(data.getJson().toByteArray(), BroadcastMessage.class);
+            case INTEREST -> {
+                message = new BroadcastMessage();
+                message.setInterest(decodeInterest(data.getInterest()));
+            }
+            default -> throw new IOException("Empty broadcast message");
+        }
+        return message;
+    }
+
+    private static BroadcastMessage.Interest decodeInterest(Broadcast.Interest data) {
+        var interest = new BroadcastMessage.Interest();
+        interest.setNode(data.getNode());
+        interest.setFull(data.getFull());
+        interest.setRequest(data.getRequest());
+        interest.setDeviceIds(decodeIds(data.getDeviceIdDeltasList()));
+        interest.setRemovedDeviceIds(decodeIds(data.getRemovedDeviceIdDeltasList()));
+        return interest;
+    }
+
+    private static long[] decodeIds(List<Long> deltas) {
+        long[] values = new long[deltas.size()];
+        long previous = 0;
+        for (int i = 0; i < values.length; i++) {
+            previous += deltas.get(i);
+            values[i] = previous;
+        }
+        return values;
+    }
+
+    private Position decodePosition(Broadcast.Position data) throws IOException {
+        Position position = new Position();
+        position.setId(data.getId());
+        position.setDeviceId(data.getDeviceId());
+        position.setProtocol(data.hasProtocol() ? data.getProtocol() : null);
+        position.setServerTime(data.hasServerTime() ? new Date(data.getServerTime()) : null);
+        position.setDeviceTime(data.hasDeviceTime() ? new Date(data.getDeviceTime()) : null);
+        position.setFixTime(data.hasFixTime() ? new Date(data.getFixTime()) : null);
+        position.setValid(data.getValid());
+        position.setLatitude(data.getLatitude());
+        position.setLongitude(data.getLongitude());
+        position.setAltitude(data.getAltitude());
+        position.setSpeed(data.getSpeed());
+        position.setCourse(data.getCourse());
+        position.setAddress(data.hasAddress() ? data.getAddress() : null);
+        position.setAccuracy(data.getAccuracy());
+        if (data.hasNetwork()) {
+            position.setNetwork(objectMapper.readValue(data.getNetwork().toByteArray(), Network.class));
+        }
+        if (data.getGeofenceIdsCount() > 0) {
+            position.setGeofenceIds(new ArrayList<>(data.getGeofenceIdsList()));
+        }
+        for (Broadcast.Attribute attribute : data.getAttributesList()) {
+            position.getAttributes().put(attribute.getKey(), decodeValue(attribute));
+        }
+        return position;
+    }
+
+    private Object decodeValue(Broadcast.Attribute attribute) throws IOException {
+        return switch (attribute.getValueCase()) {
+            case BOOL_VALUE -> attribute.getBoolValue();
+            case INT_VALUE -> attribute.getIntValue();
+            case LONG_VALUE -> attribute.getLongValue();
+            case DOUBLE_VALUE -> attribute.getDoubleValue();
+            case STRING_VALUE -> attribute.getStringValue();
+            case JSON_VALUE -> objectMapper.readValue(attribute.getJsonValue().toByteArray(), Object.class);
+            default -> null;
+        };
+    }
+
+}
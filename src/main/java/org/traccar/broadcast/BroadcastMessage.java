@@ -180,4 +180,68 @@ public class BroadcastMessage {
         this.invalidatePermission = invalidatePermission;
     }
 
+    public static class Interest {
+
+        private String node;
+
+        public String getNode() {
+            return node;
+        }
+
+        public void setNode(String node) {
+            this.node = node;
+        }
+
+        private boolean full;
+
+        public boolean getFull() {
+            return full;
+        }
+
+        public void setFull(boolean full) {
+            this.full = full;
+        }
+
+        private boolean request;
+
+        public boolean getRequest() {
+            return request;
+        }
+
+        public void setRequest(boolean request) {
+            this.request = request;
+        }
+
+        private long[] deviceIds;
+
+        public long[] getDeviceIds() {
+            return deviceIds;
+        }
+
+        public void setDeviceIds(long[] deviceIds) {
+            this.deviceIds = deviceIds;
+        }
+
+        private long[] removedDeviceIds;
+
+        public long[] getRemovedDeviceIds() {
+            return removedDeviceIds;
+        }
+
+        public void setRemovedDeviceIds(long[] removedDeviceIds) {
+            this.removedDeviceIds = removedDeviceIds;
+        }
+
+    }
+
+    private Interest interest;
+
+    public Interest getInterest() {
+        return interest;
+    }
+
+    public void setInterest(Interest interest) {
+        this.interest = interest;
+    }
+
 }
@@ -17,7 +17,22 @@ package org.traccar.broadcast;
 
 import org.traccar.LifecycleObject;
 
+import java.util.Collection;
+import java.util.function.Supplier;
+
 public interface BroadcastService extends LifecycleObject, BroadcastInterface {
     boolean singleInstance();
     void registerListener(BroadcastInterface listener);
+
+    /**
+     * Registers a source of device ids this node needs updates for. Used to route device updates between nodes.
+     */
+    default void registerInterest(Supplier<Collection<Long>> supplier) {
+    }
+
+    /**
+     * Notifies other nodes that this node started or stopped needing updates for the device.
+     */
+    default void updateInterest(long deviceId, boolean interested) {
+    }
 }
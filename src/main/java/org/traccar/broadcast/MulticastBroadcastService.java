@@ -28,28 +28,29 @@ import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.MulticastSocket;
 import java.net.NetworkInterface;
-import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.concurrent.ExecutorService;
 
-public class MulticastBroadcastService extends BaseBroadcastService {
+public class MulticastBroadcastService extends BatchedBroadcastService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MulticastBroadcastService.class);
 
-    private final ObjectMapper objectMapper;
+    private static final int MAX_BATCH_SIZE = 8192;
 
     private final NetworkInterface networkInterface;
     private final int port;
     private final InetSocketAddress group;
 
-    private DatagramSocket publisherSocket;
+    private volatile DatagramSocket publisherSocket;
 
     private final ExecutorService executorService;
-    private final byte[] receiverBuffer = new byte[4096];
+    private final byte[] receiverBuffer = new byte[65535];
 
     public MulticastBroadcastService(
-            Config config, ExecutorService executorService, ObjectMapper objectMapper) throws IOException {
+            Config config, ExecutorService executorService, ObjectMapper objectMapper,
+            ShardManager shardManager) throws IOException {
+        super(config, objectMapper, shardManager, MAX_BATCH_SIZE);
         this.executorService = executorService;
-        this.objectMapper = objectMapper;
         port = config.getInteger(Keys.BROADCAST_PORT);
         String interfaceName = config.getString(Keys.BROADCAST_INTERFACE);
         if (interfaceName.indexOf('.') >= 0 || interfaceName.indexOf(':') >= 0) {
@@ -62,30 +63,21 @@ public class MulticastBroadcastService extends BaseBroadcastService {
     }
 
     @Override
-    public boolean singleInstance() {
-        return false;
-    }
-
-    @Override
-    protected void sendMessage(BroadcastMessage message) {
-        try {
-            byte[] buffer = objectMapper.writeValueAsString(message).getBytes(StandardCharsets.UTF_8);
-            DatagramPacket packet = new DatagramPacket(buffer, buffer.length, group);
-            publisherSocket.send(packet);
-        } catch (IOException e) {
-            LOGGER.warn("Broadcast failed", e);
+    protected void sendBatch(String target, byte[] data) throws IOException {
+        DatagramSocket socket = publisherSocket;
+        if (socket != null) {
+            socket.send(new DatagramPacket(data, data.length, group));
+        } else {
+            LOGGER.warn("Broadcast socket is not ready");
         }
     }
 
     @Override
     public void start() throws IOException {
+        super.start();
         executorService.submit(receiver);
     }
 
-    @Override
-    public void stop() {
-    }
-
     private final Runnable receiver = new Runnable() {
         @Override
         public void run() {
@@ -97,8 +89,7 @@ public class MulticastBroadcastService extends BaseBroadcastService {
                     DatagramPacket packet = new DatagramPacket(receiverBuffer, receiverBuffer.length);
                     socket.receive(packet);
                     if (networkInterface.inetAddresses().noneMatch(a -> a.equals(packet.getAddress()))) {
-                        String data = new String(packet.getData(), 0, packet.getLength(), StandardCharsets.UTF_8);
-                        handleMessage(objectMapper.readValue(data, BroadcastMessage.class));
+                        handleBatch(Arrays.copyOf(packet.getData(), packet.getLength()));
                     }
                 }
                 publisherSocket = null;
@@ -1,5 +1,5 @@
 /*
- * Copyright 2023 - 2024 Anton Tananaev (anton@traccar.org)
+ * Copyright 2023 - 2025 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,33 +22,53 @@ import org.traccar.config.Config;
 import org.traccar.config.Keys;
 
 import java.io.IOException;
-import java.util.UUID;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 
+import redis.clients.jedis.BinaryJedisPubSub;
 import redis.clients.jedis.Jedis;
-import redis.clients.jedis.JedisPubSub;
 import redis.clients.jedis.exceptions.JedisConnectionException;
 import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.jedis.params.XAddParams;
+import redis.clients.jedis.params.XReadParams;
 
-public class RedisBroadcastService extends BaseBroadcastService {
+public class RedisBroadcastService extends BatchedBroadcastService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(RedisBroadcastService.class);
 
-    private final ObjectMapper objectMapper;
+    private static final int MAX_BATCH_SIZE = 256 * 1024;
+    private static final int STREAM_BLOCK_TIMEOUT = 1000;
+    private static final long NODE_STREAM_EXPIRATION = 300;
+    private static final long NODE_STREAM_REFRESH = TimeUnit.SECONDS.toMillis(NODE_STREAM_EXPIRATION / 3);
+
+    private static final byte[] FIELD = "data".getBytes(StandardCharsets.US_ASCII);
 
     private final ExecutorService executorService;
 
-    private final String channel = "traccar";
+    private static final String CHANNEL = "traccar";
+
+    private final byte[][] channels;
+    private final boolean stream;
+    private final long streamLength;
 
     private Jedis subscriber;
     private Jedis publisher;
 
-    private final String id = UUID.randomUUID().toString();
+    private final Map<String, Long> expirationRefreshes = new HashMap<>();
 
     public RedisBroadcastService(
-            Config config, ExecutorService executorService, ObjectMapper objectMapper) throws IOException {
+            Config config, ExecutorService executorService, ObjectMapper objectMapper,
+            ShardManager shardManager) throws IOException {
+        super(config, objectMapper, shardManager, MAX_BATCH_SIZE);
         this.executorService = executorService;
-        this.objectMapper = objectMapper;
+        stream = config.getString(Keys.BROADCAST_REDIS_MODE).equals("stream");
+        streamLength = config.getLong(Keys.BROADCAST_REDIS_STREAM_LENGTH);
+        channels = new byte[][] {getChannel(null), getChannel(getId())};
         String url = config.getString(Keys.BROADCAST_ADDRESS);
 
         try {
@@ -60,28 +80,48 @@ public class RedisBroadcastService extends BaseBroadcastService {
         }
     }
 
-    @Override
-    public boolean singleInstance() {
-        return false;
+    private static byte[] getChannel(String target) {
+        String channel = target == null ? CHANNEL : CHANNEL + ":" + target;
+        return channel.getBytes(StandardCharsets.US_ASCII);
     }
 
     @Override
-    protected void sendMessage(BroadcastMessage message) {
-        try {
-            String payload = id  + ":" + objectMapper.writeValueAsString(message);
-            publisher.publish(channel, payload);
-        } catch (IOException | JedisConnectionException e) {
-            LOGGER.warn("Broadcast failed", e);
+    protected void sendBatch(String target, byte[] data) {
+        byte[] channel = getChannel(target);
+        if (stream) {
+            XAddParams params = XAddParams.xAddParams().maxLen(streamLength).approximateTrimming();
+            publisher.xadd(channel, params, Map.of(FIELD, data));
+            if (target != null) {
+                refreshExpiration(target, channel);
+            }
+        } else {
+            publisher.publish(channel, data);
+        }
+    }
+
+    /**
+     * Node streams disappear with their node. The expiration is refreshed once per interval for each target node
+     * instead of on every send. Calls are serialized with {@link #sendBatch}.
+     */
+    private void refreshExpiration(String target, byte[] channel) {
+        long currentTime = System.currentTimeMillis();
+        Long refreshTime = expirationRefreshes.get(target);
+        if (refreshTime == null || currentTime - refreshTime >= NODE_STREAM_REFRESH) {
+            publisher.expire(channel, NODE_STREAM_EXPIRATION);
+            expirationRefreshes.put(target, currentTime);
+            expirationRefreshes.values().removeIf(time -> currentTime - time >= NODE_STREAM_REFRESH * 2);
         }
     }
 
     @Override
     public void start() throws IOException {
-        executorService.submit(receiver);
+        super.start();
+        executorService.submit(stream ? streamReceiver : receiver);
     }
 
     @Override
     public void stop() {
+        super.stop();
         try {
             if (subscriber != null) {
                 subscriber.close();
@@ -104,21 +144,54 @@ public class RedisBroadcastService extends BaseBroadcastService {
         @Override
         public void run() {
             try {
-                subscriber.subscribe(new JedisPubSub() {
+                subscriber.subscribe(new BinaryJedisPubSub() {
                     @Override
-                    public void onMessage(String messageChannel, String message) {
-                        try {
-                            String[] parts = message.split(":", 2);
-                            if (messageChannel.equals(channel) && parts.length == 2 && !id.equals(parts[0])) {
-                                handleMessage(objectMapper.readValue(parts[1], BroadcastMessage.class));
+                    public void onMessage(byte[] messageChannel, byte[] message) {
+                        handleBatch(message);
+                    }
+                }, channels);
+            } catch (JedisException e) {
+                throw new RuntimeException(e);
+            }
+        }
+    };
+
+    private final Runnable streamReceiver = new Runnable() {
+        @Override
+        public void run() {
+            byte[][] lastIds = new byte[channels.length][];
+            Arrays.fill(lastIds, "$".getBytes(StandardCharsets.US_ASCII));
+            XReadParams params = XReadParams.xReadParams().block(STREAM_BLOCK_TIMEOUT);
+            try {
+                while (!executorService.isShutdown() && subscriber != null) {
+                    @SuppressWarnings("unchecked")
+                    Map.Entry<byte[], byte[]>[] streams = new Map.Entry[channels.length];
+                    for (int i = 0; i < channels.length; i++) {
+                        streams[i] = Map.entry(channels[i], lastIds[i]);
+                    }
+                    List<Object> response = subscriber.xread(params, streams);
+                    if (response == null) {
+                        continue;
+                    }
+                    // raw reply: [[stream, [[id, [field, value, ...]], ...]], ...]
+                    for (Object streamReply : response) {
+                        int index = Arrays.equals((byte[]) ((List<?>) streamReply).get(0), channels[0]) ? 0 : 1;
+                        for (Object entry : (List<?>) ((List<?>) streamReply).get(1)) {
+                            List<?> entryReply = (List<?>) entry;
+                            lastIds[index] = (byte[]) entryReply.get(0);
+                            List<?> fields = (List<?>) entryReply.get(1);
+                            for (int i = 0; i + 1 < fields.size(); i += 2) {
+                                if (Arrays.equals((byte[]) fields.get(i), FIELD)) {
+                                    handleBatch((byte[]) fields.get(i + 1));
+                                }
                             }
-                        } catch (Exception e) {
-                            LOGGER.warn("Broadcast handleMessage failed", e);
                         }
                     }
-                }, channel);
+                }
             } catch (JedisException e) {
-                throw new RuntimeException(e);
+                if (subscriber != null) {
+                    throw new RuntimeException(e);
+                }
             }
         }
     };
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2025 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.broadcast;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+
+/**
+ * Assigns devices to cluster nodes. The 64-bit hash space of device ids is split into equal ranges, one per node,
+ * and the node owning a range is responsible for the periodic work of its devices.
+ */
+@Singleton
+public class ShardManager {
+
+    private final int count;
+    private final int index;
+    private final boolean primary;
+
+    @Inject
+    public ShardManager(Config config) {
+        count = config.getInteger(Keys.BROADCAST_SHARD_COUNT);
+        index = config.getInteger(Keys.BROADCAST_SHARD_INDEX);
+        primary = count > 0 ? index == 0 : !config.getBoolean(Keys.BROADCAST_SECONDARY);
+        if (count > 0 && (index < 0 || index >= count)) {
+            throw new IllegalArgumentException("Shard index must be between 0 and " + (count - 1));
+        }
+    }
+
+    public boolean isEnabled() {
+        return count > 0;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * The primary node runs tasks that are not partitioned by device. Without sharding, every node that is not
+     * marked as secondary is primary.
+     */
+    public boolean isPrimary() {
+        return primary;
+    }
+
+    public int getOwner(long deviceId) {
+        if (count <= 1) {
+            return 0;
+        }
+        long hash = hash(deviceId) >>> 32;
+        return (int) ((hash * count) >>> 32);
+    }
+
+    /**
+     * Without sharding the primary node owns all devices.
+     */
+    public boolean owns(long deviceId) {
+        return count > 1 ? getOwner(deviceId) == index : primary;
+    }
+
+    private static long hash(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+
+}
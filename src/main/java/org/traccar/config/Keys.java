@@ -37,6 +37,26 @@ public final class Keys {
             ".port",
             List.of(KeyType.CONFIG));
 
+    /**
+     * Number of UDP sockets bound to the protocol port. With more than one socket, SO_REUSEPORT is enabled and the
+     * kernel distributes incoming datagrams between the sockets by source address, so several worker threads can
+     * read in parallel. The value should not exceed the number of worker threads.
+     */
+    public static final ConfigSuffix<Integer> PROTOCOL_DATAGRAM_SOCKETS = new IntegerConfigSuffix(
+            ".datagramSockets",
+            List.of(KeyType.CONFIG),
+            1);
+
+    /**
+     * Write only every n-th network message of the protocol to the log file. The value can be overridden for
+     * specific devices or groups with the same attribute, for example 'gt06.logSampling'. Live logs in the web app
+     * are not sampled.
+     */
+    public static final ConfigSuffix<Integer> PROTOCOL_LOG_SAMPLING = new IntegerConfigSuffix(
+            ".logSampling",
+            List.of(KeyType.CONFIG, KeyType.DEVICE),
+            1);
+
     /**
      * List of devices for polling protocols. List should contain unique ids separated by commas. Used only for polling
      * protocols.
@@ -83,6 +103,29 @@ public final class Keys {
             ".devicePassword",
             List.of(KeyType.CONFIG));
 
+    /**
+     * Payload encryption key in hex format. Can be set per device, group or in the config file. Used by
+     * protocols with encrypted payloads, for example 'mga.encryptionKey'.
+     */
+    public static final ConfigSuffix<String> PROTOCOL_ENCRYPTION_KEY = new StringConfigSuffix(
+            ".encryptionKey",
+            List.of(KeyType.CONFIG, KeyType.DEVICE));
+
+    /**
+     * Payload encryption initialization vector in hex format. Resolved the same way as the encryption key.
+     */
+    public static final ConfigSuffix<String> PROTOCOL_ENCRYPTION_IV = new StringConfigSuffix(
+            ".encryptionIv",
+            List.of(KeyType.CONFIG, KeyType.DEVICE));
+
+    /**
+     * Maximum number of initialized per-device ciphers kept in memory. Default value is 10000.
+     */
+    public static final ConfigKey<Integer> PROTOCOL_CIPHER_CACHE_SIZE = new IntegerConfigKey(
+            "protocol.cipherCacheSize",
+            List.of(KeyType.CONFIG),
+            10000);
+
     /**
      * Default protocol mask to use. Currently used only by Skypatrol protocol.
      */
@@ -338,6 +381,32 @@ public final class Keys {
             List.of(KeyType.CONFIG),
             0);
 
+    /**
+     * Netty transport for network connections. Supported values are 'nio' (default), 'epoll' and 'io_uring'. Native
+     * transports are only available on Linux. If the requested transport is not available, epoll and then NIO is
+     * used instead.
+     */
+    public static final ConfigKey<String> SERVER_NETTY_TRANSPORT = new StringConfigKey(
+            "server.nettyTransport",
+            List.of(KeyType.CONFIG),
+            "nio");
+
+    /**
+     * TCP_DEFER_ACCEPT timeout in seconds. Connections are only accepted once the device sends the first data, so
+     * idle connection attempts do not consume resources. Only supported by the epoll transport.
+     */
+    public static final ConfigKey<Integer> SERVER_TCP_DEFER_ACCEPT = new IntegerConfigKey(
+            "server.tcpDeferAccept",
+            List.of(KeyType.CONFIG),
+            0);
+
+    /**
+     * Set SO_REUSEPORT on server sockets, so several server instances can listen on the same port.
+     */
+    public static final ConfigKey<Boolean> SERVER_REUSE_PORT = new BooleanConfigKey(
+            "server.reusePort",
+            List.of(KeyType.CONFIG));
+
     /**
      * Address for uploading aggregated anonymous usage statistics. Uploaded information is the same you can see on the
      * statistics screen in the web app. It does not include any sensitive (e.g. locations).
@@ -498,6 +567,15 @@ public final class Keys {
             "database.maxPoolSize",
             List.of(KeyType.CONFIG));
 
+    /**
+     * Number of rows fetched from the database at once for streamed queries, like exports and reports. By default
+     * some drivers load the whole result set into memory. For PostgreSQL any positive value enables cursor based
+     * fetching. For MySQL use -2147483648 to stream rows one by one.
+     */
+    public static final ConfigKey<Integer> DATABASE_FETCH_SIZE = new IntegerConfigKey(
+            "database.fetchSize",
+            List.of(KeyType.CONFIG));
+
     /**
      * SQL query to check connection status. Default value is 'SELECT 1'. For Oracle database you can use
      * 'SELECT 1 FROM DUAL'.
@@ -507,6 +585,42 @@ public final class Keys {
             List.of(KeyType.CONFIG),
             "SELECT 1");
 
+    /**
+     * Enable monthly partitioning of positions and events tables. Supported for PostgreSQL without TimescaleDB and
+     * MySQL. On PostgreSQL existing data is kept as a single legacy partition; indexes are built concurrently and the
+     * legacy range is validated before the tables are locked briefly to attach it. On MySQL both tables are rebuilt
+     * once when the option is enabled for the first time and writes to them are blocked until the rebuild completes,
+     * so expect downtime proportional to the table size.
+     */
+    public static final ConfigKey<Boolean> DATABASE_PARTITION = new BooleanConfigKey(
+            "database.partition",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Number of full months of positions and events to keep when partitioning is enabled. Older partitions are
+     * dropped as a whole. By default, data is kept forever.
+     */
+    public static final ConfigKey<Integer> DATABASE_PARTITION_RETENTION = new IntegerConfigKey(
+            "database.partition.retention",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Directory for archived position history. When set, complete months of positions older than
+     * 'database.archive.days' are moved out of the database into compressed columnar segment files. Position queries
+     * transparently merge archived and database results.
+     */
+    public static final ConfigKey<String> DATABASE_ARCHIVE_PATH = new StringConfigKey(
+            "database.archive.path",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Minimum age of positions in days before they are moved to the archive. Only whole calendar months are archived.
+     */
+    public static final ConfigKey<Integer> DATABASE_ARCHIVE_DAYS = new IntegerConfigKey(
+            "database.archive.days",
+            List.of(KeyType.CONFIG),
+            90);
+
     /**
      * Store original HEX or string data as "raw" attribute in the corresponding position.
      */
@@ -514,6 +628,25 @@ public final class Keys {
             "database.saveOriginal",
             List.of(KeyType.CONFIG));
 
+    /**
+     * Keep an in-memory index of device unique ids, so new device sessions don't need a database query. The index is
+     * updated when devices are changed through the API. Devices added directly to the database are still found through
+     * a database query when their id is not in the index.
+     */
+    public static final ConfigKey<Boolean> DATABASE_DEVICE_INDEX = new BooleanConfigKey(
+            "database.deviceIndex",
+            List.of(KeyType.CONFIG),
+            true);
+
+    /**
+     * Time in seconds to remember unique ids that are not found in the index or the database. Zero disables caching
+     * of unknown ids.
+     */
+    public static final ConfigKey<Long> DATABASE_DEVICE_INDEX_NEGATIVE_TIMEOUT = new LongConfigKey(
+            "database.deviceIndex.negativeTimeout",
+            List.of(KeyType.CONFIG),
+            60L);
+
     /**
      * Throttle unknown device database queries when it sends repeated requests.
      */
@@ -1020,6 +1153,15 @@ public final class Keys {
             List.of(KeyType.CONFIG),
             "templates");
 
+    /**
+     * Interval in seconds for checking template files for changes. Compiled templates are cached in between. Zero
+     * disables the checks, so templates are only loaded once.
+     */
+    public static final ConfigKey<Integer> TEMPLATES_CHECK_INTERVAL = new IntegerConfigKey(
+            "templates.checkInterval",
+            List.of(KeyType.CONFIG),
+            60);
+
     /**
      * Log emails instead of sending them via SMTP. Intended for testing purposes only.
      */
@@ -1234,6 +1376,62 @@ public final class Keys {
             List.of(KeyType.CONFIG),
             "web,mail,command");
 
+    /**
+     * Maximum number of notifications of a given type sent in parallel. Used with a notificator prefix, for example
+     * 'notificator.mail.concurrency'.
+     */
+    public static final ConfigSuffix<Integer> NOTIFICATOR_CONCURRENCY = new IntegerConfigSuffix(
+            ".concurrency",
+            List.of(KeyType.CONFIG),
+            4);
+
+    /**
+     * Maximum number of pending notifications of a given type. When the queue is full, new notifications are dropped
+     * instead of blocking event processing. Used with a notificator prefix, for example 'notificator.mail.queueSize'.
+     */
+    public static final ConfigSuffix<Integer> NOTIFICATOR_QUEUE_SIZE = new IntegerConfigSuffix(
+            ".queueSize",
+            List.of(KeyType.CONFIG),
+            1000);
+
+    /**
+     * Number of retries for a failed notification. Used with a notificator prefix, for example
+     * 'notificator.mail.retries'.
+     */
+    public static final ConfigSuffix<Integer> NOTIFICATOR_RETRIES = new IntegerConfigSuffix(
+            ".retries",
+            List.of(KeyType.CONFIG),
+            3);
+
+    /**
+     * Initial retry delay in milliseconds. The delay doubles with every attempt. Used with a notificator prefix, for
+     * example 'notificator.mail.retryDelay'.
+     */
+    public static final ConfigSuffix<Long> NOTIFICATOR_RETRY_DELAY = new LongConfigSuffix(
+            ".retryDelay",
+            List.of(KeyType.CONFIG),
+            5000L);
+
+    /**
+     * Digest window in milliseconds. When set, notifications for the same user are collected for this period and sent
+     * as a single message. Notificators that deliver events individually, like web and command, ignore it. Used with
+     * a notificator prefix, for example 'notificator.mail.digestWindow'.
+     */
+    public static final ConfigSuffix<Long> NOTIFICATOR_DIGEST_WINDOW = new LongConfigSuffix(
+            ".digestWindow",
+            List.of(KeyType.CONFIG),
+            0L);
+
+    /**
+     * Maximum delay in milliseconds for alarm events collected into a digest. A pending digest is sent early if it
+     * contains an alarm. Zero sends alarms without waiting. Default value is 10 seconds, so alarms raised at the same
+     * moment still share one message. Used with a notificator prefix, for example 'notificator.mail.digestAlarmDelay'.
+     */
+    public static final ConfigSuffix<Long> NOTIFICATOR_DIGEST_ALARM_DELAY = new LongConfigSuffix(
+            ".digestAlarmDelay",
+            List.of(KeyType.CONFIG),
+            10000L);
+
     /**
      * If the event time is too old, we should not send notifications. This parameter is the threshold value in
      * milliseconds. Default value is 15 minutes.
@@ -1257,6 +1455,22 @@ public final class Keys {
             "notificator.firebase.serviceAccount",
             List.of(KeyType.CONFIG));
 
+    /**
+     * Delay in milliseconds for collecting Firebase tokens of different users receiving the same message into one
+     * multicast request. Batches are sent earlier when they reach 500 tokens.
+     */
+    public static final ConfigKey<Long> NOTIFICATOR_FIREBASE_BATCH_DELAY = new LongConfigKey(
+            "notificator.firebase.batchDelay",
+            List.of(KeyType.CONFIG),
+            100L);
+
+    /**
+     * Use a local stub instead of the Firebase service. Messages are only logged. Intended for testing.
+     */
+    public static final ConfigKey<Boolean> NOTIFICATOR_FIREBASE_STUB = new BooleanConfigKey(
+            "notificator.firebase.stub",
+            List.of(KeyType.CONFIG));
+
     /**
      * Pushover notification user name.
      */
@@ -1335,6 +1549,23 @@ public final class Keys {
             "report.periodLimit",
             List.of(KeyType.CONFIG));
 
+    /**
+     * Number of rows kept in memory while generating streamed Excel reports. Older rows are flushed to a temporary
+     * file, so memory usage does not depend on the report size. Default value is 100 rows.
+     */
+    public static final ConfigKey<Integer> REPORT_EXCEL_WINDOW = new IntegerConfigKey(
+            "report.excelWindow",
+            List.of(KeyType.CONFIG),
+            100);
+
+    /**
+     * Comma-separated list of position attributes included in CSV export. If not set, the list is collected from
+     * the exported positions, which requires an additional pass over the data.
+     */
+    public static final ConfigKey<String> REPORT_CSV_ATTRIBUTES = new StringConfigKey(
+            "report.csvAttributes",
+            List.of(KeyType.CONFIG));
+
     /**
      * Time threshold for fast reports. Fast reports are more efficient, but less accurate and missing some information.
      * The value is in seconds. One day by default.
@@ -1984,6 +2215,32 @@ public final class Keys {
             List.of(KeyType.CONFIG),
             true);
 
+    /**
+     * Number of recent incoming messages kept in memory for every device. The buffer can be requested through the
+     * API to inspect raw traffic without enabling full network logging. Disabled by default.
+     */
+    public static final ConfigKey<Integer> LOGGER_DEVICE_BUFFER = new IntegerConfigKey(
+            "logger.deviceBuffer",
+            List.of(KeyType.CONFIG),
+            0);
+
+    /**
+     * Write log records from a background thread. Logging calls only enqueue the record into a bounded buffer, so
+     * network threads never wait for file I/O. When the buffer is full, informational records are dropped, while
+     * warnings and errors are written directly.
+     */
+    public static final ConfigKey<Boolean> LOGGER_ASYNC = new BooleanConfigKey(
+            "logger.async",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Number of records the asynchronous logger can hold before it starts dropping them. Default value is 8192.
+     */
+    public static final ConfigKey<Integer> LOGGER_ASYNC_BUFFER = new IntegerConfigKey(
+            "logger.asyncBuffer",
+            List.of(KeyType.CONFIG),
+            8192);
+
     /**
      * Log file rotation interval, the default rotation interval is once a day.
      * This option is ignored if 'logger.rotate' = false
@@ -2038,4 +2295,56 @@ public final class Keys {
             "broadcast.secondary",
             List.of(KeyType.CONFIG));
 
+    /**
+     * Only send position and device updates to nodes that need them. Every node advertises devices that have live
+     * WebSocket subscribers or a device connection on that node.
+     */
+    public static final ConfigKey<Boolean> BROADCAST_INTEREST = new BooleanConfigKey(
+            "broadcast.interest",
+            List.of(KeyType.CONFIG));
+
+    /**
+     * Number of nodes in a sharded cluster. Each node owns an equal hash range of device ids and only runs periodic
+     * device tasks for the devices it owns. Sharding also enables interest routing. Zero (default) disables sharding.
+     */
+    public static final ConfigKey<Integer> BROADCAST_SHARD_COUNT = new IntegerConfigKey(
+            "broadcast.shard.count",
+            List.of(KeyType.CONFIG),
+            0);
+
+    /**
+     * Zero-based index of this node in a sharded cluster. Every node needs a unique index. Tasks that are not
+     * partitioned by device only run on the node with index zero.
+     */
+    public static final ConfigKey<Integer> BROADCAST_SHARD_INDEX = new IntegerConfigKey(
+            "broadcast.shard.index",
+            List.of(KeyType.CONFIG),
+            0);
+
+    /**
+     * Time in milliseconds to collect outgoing broadcast messages before sending them as one batch. Zero disables
+     * batching. All cluster nodes have to run the same server version, because batches use a binary format.
+     */
+    public static final ConfigKey<Long> BROADCAST_FLUSH_INTERVAL = new LongConfigKey(
+            "broadcast.flushInterval",
+            List.of(KeyType.CONFIG),
+            10L);
+
+    /**
+     * Redis transport mode. Options are 'pubsub' (default) and 'stream'. Stream mode appends batches to a capped Redis
+     * Stream instead of publishing them to a channel.
+     */
+    public static final ConfigKey<String> BROADCAST_REDIS_MODE = new StringConfigKey(
+            "broadcast.redis.mode",
+            List.of(KeyType.CONFIG),
+            "pubsub");
+
+    /**
+     * Approximate maximum number of batches kept in the Redis Stream.
+     */
+    public static final ConfigKey<Long> BROADCAST_REDIS_STREAM_LENGTH = new LongConfigKey(
+            "broadcast.redis.streamLength",
+            List.of(KeyType.CONFIG),
+            10000L);
+
 }
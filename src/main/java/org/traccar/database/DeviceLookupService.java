@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2025 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -20,9 +20,13 @@ import io.netty.util.Timer;
 import io.netty.util.TimerTask;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.traccar.broadcast.BroadcastInterface;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
+import org.traccar.model.BaseModel;
 import org.traccar.model.Device;
+import org.traccar.model.ObjectOperation;
+import org.traccar.session.cache.CacheManager;
 import org.traccar.storage.Storage;
 import org.traccar.storage.StorageException;
 import org.traccar.storage.query.Columns;
@@ -31,23 +35,65 @@ import org.traccar.storage.query.Request;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
+import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Resolves device unique ids for new sessions. By default, an in-memory index of all devices is loaded in the
+ * background on startup and kept current through object invalidation, so establishing a session does not need the
+ * database. Until the index is loaded, lookups query the database directly. Invalidations received while the index is
+ * loading are replayed afterwards. Unknown ids are remembered for a while to avoid repeated queries.
+ */
 @Singleton
-public class DeviceLookupService {
+public class DeviceLookupService implements BroadcastInterface {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DeviceLookupService.class);
 
     private static final long INFO_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(60);
     private static final long THROTTLE_MIN_MS = TimeUnit.MINUTES.toMillis(1);
     private static final long THROTTLE_MAX_MS = TimeUnit.MINUTES.toMillis(30);
+    private static final long INDEX_RETRY_MS = TimeUnit.MINUTES.toMillis(1);
 
     private final Storage storage;
     private final Timer timer;
+    private final ExecutorService executorService;
 
     private final boolean throttlingEnabled;
+    private final boolean indexEnabled;
+    private final long negativeTimeout;
+
+    private record DeviceEntry(long id, String uniqueId, String model, boolean disabled, Date expirationTime) {
+
+        private static DeviceEntry of(Device device) {
+            return new DeviceEntry(
+                    device.getId(), device.getUniqueId(), device.getModel(),
+                    device.getDisabled(), device.getExpirationTime());
+        }
+
+        private Device toDevice() {
+            Device device = new Device();
+            device.setId(id);
+            device.setUniqueId(uniqueId);
+            device.setModel(model);
+            device.setDisabled(disabled);
+            device.setExpirationTime(expirationTime);
+            return device;
+        }
+    }
+
+    private static final Columns INDEX_COLUMNS = new Columns.Include(
+            "id", "uniqueId", "model", "disabled", "expirationTime");
+
+    private volatile boolean indexLoaded;
+    private boolean indexLoading;
+    private final Map<Long, ObjectOperation> pendingInvalidations = new LinkedHashMap<>();
+    private final Map<String, DeviceEntry> index = new ConcurrentHashMap<>();
+    private final Map<Long, String> indexIds = new ConcurrentHashMap<>();
+    private final Map<String, Long> negativeCache = new ConcurrentHashMap<>();
 
     private static final class IdentifierInfo {
         private long lastQuery;
@@ -74,10 +120,124 @@ public class DeviceLookupService {
     private final Map<String, IdentifierInfo> identifierMap = new ConcurrentHashMap<>();
 
     @Inject
-    public DeviceLookupService(Config config, Storage storage, Timer timer) {
+    public DeviceLookupService(Config config, Storage storage, Timer timer, ExecutorService executorService) {
         this.storage = storage;
         this.timer = timer;
+        this.executorService = executorService;
         throttlingEnabled = config.getBoolean(Keys.DATABASE_THROTTLE_UNKNOWN);
+        indexEnabled = config.getBoolean(Keys.DATABASE_DEVICE_INDEX);
+        negativeTimeout = TimeUnit.SECONDS.toMillis(config.getLong(Keys.DATABASE_DEVICE_INDEX_NEGATIVE_TIMEOUT));
+        if (indexEnabled) {
+            executorService.execute(this::loadIndex);
+        }
+    }
+
+    @Inject
+    public void setCacheManager(CacheManager cacheManager) {
+        cacheManager.registerListener(this);
+    }
+
+    private void loadIndex() {
+        synchronized (pendingInvalidations) {
+            indexLoading = true;
+        }
+        try {
+            try (var devices = storage.getObjectsStream(Device.class, new Request(INDEX_COLUMNS))) {
+                devices.forEach(this::addToIndex);
+            }
+            Map<Long, ObjectOperation> pending;
+            synchronized (pendingInvalidations) {
+                indexLoading = false;
+                indexLoaded = true;
+                pending = new LinkedHashMap<>(pendingInvalidations);
+                pendingInvalidations.clear();
+            }
+            for (var entry : pending.entrySet()) {
+                invalidateDevice(entry.getKey(), entry.getValue());
+            }
+            LOGGER.info("Device lookup index loaded with {} devices", index.size());
+        } catch (StorageException | RuntimeException e) {
+            LOGGER.warn("Device lookup index error, retrying in {} ms", INDEX_RETRY_MS, e);
+            timer.newTimeout(
+                    timeout -> executorService.execute(this::loadIndex), INDEX_RETRY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void addToIndex(Device device) {
+        String oldUniqueId = indexIds.put(device.getId(), device.getUniqueId());
+        if (oldUniqueId != null && !oldUniqueId.equals(device.getUniqueId())) {
+            index.remove(oldUniqueId);
+        }
+        index.put(device.getUniqueId(), DeviceEntry.of(device));
+        negativeCache.remove(device.getUniqueId());
+    }
+
+    private synchronized void removeFromIndex(long deviceId) {
+        String uniqueId = indexIds.remove(deviceId);
+        if (uniqueId != null) {
+            index.remove(uniqueId);
+        }
+    }
+
+    /**
+     * Registers a device created outside of the regular API flow, for example an automatically registered one.
+     */
+    public void addDevice(Device device) {
+        if (indexEnabled) {
+            addToIndex(device);
+        }
+    }
+
+    @Override
+    public <T extends BaseModel> void invalidateObject(
+            boolean local, Class<T> clazz, long id, ObjectOperation operation) throws Exception {
+        if (!indexEnabled || !clazz.equals(Device.class)) {
+            return;
+        }
+        synchronized (pendingInvalidations) {
+            if (!indexLoaded) {
+                if (indexLoading) {
+                    pendingInvalidations.put(id, operation);
+                }
+                if (operation != ObjectOperation.DELETE) {
+                    negativeCache.clear(); // unique id is not known without the index
+                }
+                return;
+            }
+        }
+        invalidateDevice(id, operation);
+    }
+
+    private void invalidateDevice(long id, ObjectOperation operation) throws StorageException {
+        if (operation == ObjectOperation.DELETE) {
+            removeFromIndex(id);
+        } else {
+            Device device = storage.getObject(Device.class, new Request(
+                    INDEX_COLUMNS, new Condition.Equals("id", id)));
+            if (device != null) {
+                addToIndex(device);
+            } else {
+                removeFromIndex(id);
+            }
+        }
+    }
+
+    private void addNegative(String uniqueId) {
+        long expiration = System.currentTimeMillis() + negativeTimeout;
+        negativeCache.put(uniqueId, expiration);
+        timer.newTimeout(
+                timeout -> negativeCache.remove(uniqueId, expiration), negativeTimeout, TimeUnit.MILLISECONDS);
+    }
+
+    private boolean isNegative(String uniqueId) {
+        Long expiration = negativeCache.get(uniqueId);
+        if (expiration != null) {
+            if (System.currentTimeMillis() < expiration) {
+                return true;
+            }
+            negativeCache.remove(uniqueId, expiration);
+        }
+        return false;
     }
 
     private synchronized boolean isThrottled(String uniqueId) {
@@ -118,15 +278,29 @@ public class DeviceLookupService {
     public Device lookup(String[] uniqueIds) {
         Device device = null;
         try {
+            if (indexLoaded) {
+                for (String uniqueId : uniqueIds) {
+                    DeviceEntry entry = index.get(uniqueId);
+                    if (entry != null) {
+                        return entry.toDevice();
+                    }
+                }
+            }
             for (String uniqueId : uniqueIds) {
-                if (!isThrottled(uniqueId)) {
+                if (indexEnabled && isNegative(uniqueId)) {
+                    LOGGER.debug("Device lookup cached as unknown {}", uniqueId);
+                } else if (!isThrottled(uniqueId)) {
                     device = storage.getObject(Device.class, new Request(
                             new Columns.All(), new Condition.Equals("uniqueId", uniqueId)));
                     if (device != null) {
                         lookupSucceeded(uniqueId);
+                        addDevice(device);
                         break;
                     } else {
                         lookupFailed(uniqueId);
+                        if (indexEnabled && negativeTimeout > 0) {
+                            addNegative(uniqueId);
+                        }
                     }
                 } else {
                     LOGGER.debug("Device lookup throttled {}", uniqueId);
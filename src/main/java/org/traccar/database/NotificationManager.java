@@ -30,8 +30,7 @@ import org.traccar.model.Event;
 import org.traccar.model.Geofence;
 import org.traccar.model.Maintenance;
 import org.traccar.model.Position;
-import org.traccar.notification.MessageException;
-import org.traccar.notification.NotificatorManager;
+import org.traccar.notification.NotificationDispatcher;
 import org.traccar.session.cache.CacheManager;
 import org.traccar.storage.Storage;
 import org.traccar.storage.StorageException;
@@ -41,8 +40,11 @@ import org.traccar.storage.query.Request;
 import jakarta.annotation.Nullable;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -55,7 +57,7 @@ public class NotificationManager {
     private final Storage storage;
     private final CacheManager cacheManager;
     private final EventForwarder eventForwarder;
-    private final NotificatorManager notificatorManager;
+    private final NotificationDispatcher notificationDispatcher;
     private final Geocoder geocoder;
 
     private final boolean geocodeOnRequest;
@@ -65,11 +67,11 @@ public class NotificationManager {
     @Inject
     public NotificationManager(
             Config config, Storage storage, CacheManager cacheManager, @Nullable EventForwarder eventForwarder,
-            NotificatorManager notificatorManager, @Nullable Geocoder geocoder) {
+            NotificationDispatcher notificationDispatcher, @Nullable Geocoder geocoder) {
         this.storage = storage;
         this.cacheManager = cacheManager;
         this.eventForwarder = eventForwarder;
-        this.notificatorManager = notificatorManager;
+        this.notificationDispatcher = notificationDispatcher;
         this.geocoder = geocoder;
         geocodeOnRequest = config.getBoolean(Keys.GEOCODER_ON_REQUEST);
         timeThreshold = config.getLong(Keys.NOTIFICATOR_TIME_THRESHOLD);
@@ -82,12 +84,6 @@ public class NotificationManager {
     }
 
     private void updateEvent(Event event, Position position) {
-        try {
-            event.setId(storage.addObject(event, new Request(new Columns.Exclude("id"))));
-        } catch (StorageException error) {
-            LOGGER.warn("Event save error", error);
-        }
-
         forwardEvent(event, position);
 
         if (System.currentTimeMillis() - event.getEventTime().getTime() > timeThreshold) {
@@ -135,11 +131,7 @@ public class NotificationManager {
                         return;
                     }
                     for (String notificator : notification.getNotificatorsTypes()) {
-                        try {
-                            notificatorManager.getNotificator(notificator).send(notification, user, event, position);
-                        } catch (MessageException exception) {
-                            LOGGER.warn("Notification failed", exception);
-                        }
+                        notificationDispatcher.dispatch(notificator, notification, user, event, position);
                     }
                 });
             });
@@ -167,18 +159,39 @@ public class NotificationManager {
     }
 
     public void updateEvents(Map<Event, Position> events) {
+        Map<Long, Map<Event, Position>> deviceEvents = new LinkedHashMap<>();
         for (Entry<Event, Position> entry : events.entrySet()) {
-            Event event = entry.getKey();
-            Position position = entry.getValue();
+            deviceEvents.computeIfAbsent(entry.getKey().getDeviceId(), k -> new LinkedHashMap<>())
+                    .put(entry.getKey(), entry.getValue());
+        }
+        for (Entry<Long, Map<Event, Position>> entry : deviceEvents.entrySet()) {
             var key = new Object();
             try {
-                cacheManager.addDevice(event.getDeviceId(), key);
-                updateEvent(event, position);
+                cacheManager.addDevice(entry.getKey(), key);
+                updateReferencedEvents(entry.getValue());
             } catch (Exception e) {
                 throw new RuntimeException(e);
             } finally {
-                cacheManager.removeDevice(event.getDeviceId(), key);
+                cacheManager.removeDevice(entry.getKey(), key);
             }
         }
     }
+
+    /**
+     * Stores and processes events for devices that the caller already holds in the cache.
+     */
+    public void updateReferencedEvents(Map<Event, Position> events) {
+        List<Event> eventList = new ArrayList<>(events.keySet());
+        try {
+            long[] ids = storage.addObjects(eventList, new Request(new Columns.Exclude("id")));
+            for (int i = 0; i < ids.length; i++) {
+                eventList.get(i).setId(ids[i]);
+            }
+        } catch (StorageException error) {
+            LOGGER.warn("Event save error", error);
+        }
+        for (Event event : eventList) {
+            updateEvent(event, events.get(event));
+        }
+    }
 }
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2025 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.handler.network;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.socket.DatagramPacket;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts messages and bytes received by a single server socket. Each socket is served by one event loop, so the
+ * counters are only contended by readers.
+ */
+public class SocketStatisticsHandler extends ChannelInboundHandlerAdapter {
+
+    private final AtomicLong messages = new AtomicLong();
+    private final AtomicLong bytes = new AtomicLong();
+    private volatile String thread;
+
+    public String getThread() {
+        return thread;
+    }
+
+    public long getMessages() {
+        return messages.get();
+    }
+
+    public long getBytes() {
+        return bytes.get();
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        if (thread == null) {
+            thread = Thread.currentThread().getName();
+        }
+        messages.lazySet(messages.get() + 1);
+        if (msg instanceof DatagramPacket packet) {
+            bytes.lazySet(bytes.get() + packet.content().readableBytes());
+        } else if (msg instanceof ByteBuf buf) {
+            bytes.lazySet(bytes.get() + buf.readableBytes());
+        }
+        ctx.fireChannelRead(msg);
+    }
+
+}
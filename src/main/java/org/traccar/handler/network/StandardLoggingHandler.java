@@ -1,5 +1,5 @@
 /*
- * Copyright 2019 - 2024 Anton Tananaev (anton@traccar.org)
+ * Copyright 2019 - 2025 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -25,21 +25,33 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.traccar.NetworkMessage;
 import org.traccar.config.Config;
+import org.traccar.config.ConfigKey;
 import org.traccar.config.Keys;
-import org.traccar.helper.BufferUtil;
 import org.traccar.helper.NetworkUtil;
+import org.traccar.helper.model.AttributeUtil;
 import org.traccar.model.LogRecord;
+import org.traccar.session.ConnectionKey;
 import org.traccar.session.ConnectionManager;
+import org.traccar.session.DeviceLogBuffer;
+import org.traccar.session.DeviceSession;
+import org.traccar.session.cache.CacheManager;
 
-import java.nio.charset.StandardCharsets;
-
+/**
+ * Logs raw network traffic. Records are only created if the message is written to the log file, a live log is open
+ * or the device buffer is enabled. Formatting as hex or text is deferred until a record is actually displayed.
+ */
 public class StandardLoggingHandler extends ChannelDuplexHandler {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(StandardLoggingHandler.class);
 
     private final String protocol;
     private ConnectionManager connectionManager;
+    private CacheManager cacheManager;
+    private DeviceLogBuffer deviceLogBuffer;
     private boolean decodeTextData;
+    private ConfigKey<Integer> samplingKey;
+    private int protocolSampling;
+    private long messageCount;
 
     public StandardLoggingHandler(String protocol) {
         this.protocol = protocol;
@@ -48,6 +60,8 @@ public class StandardLoggingHandler extends ChannelDuplexHandler {
     @Inject
     public void setConfig(Config config) {
         decodeTextData = config.getBoolean(Keys.LOGGER_TEXT_PROTOCOL);
+        samplingKey = Keys.PROTOCOL_LOG_SAMPLING.withPrefix(protocol);
+        protocolSampling = config.getInteger(samplingKey);
     }
 
     @Inject
@@ -55,51 +69,95 @@ public class StandardLoggingHandler extends ChannelDuplexHandler {
         this.connectionManager = connectionManager;
     }
 
+    @Inject
+    public void setCacheManager(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @Inject
+    public void setDeviceLogBuffer(DeviceLogBuffer deviceLogBuffer) {
+        this.deviceLogBuffer = deviceLogBuffer;
+    }
+
     @Override
     public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
-        LogRecord record = createLogRecord(ctx, msg);
-        log(ctx, false, record);
-        super.channelRead(ctx, msg);
-        if (record != null) {
-            connectionManager.updateLog(record);
+        boolean live = connectionManager.hasLogListeners();
+        boolean buffered = deviceLogBuffer.isEnabled();
+        if (msg instanceof NetworkMessage networkMessage && networkMessage.getMessage() instanceof ByteBuf data
+                && (LOGGER.isInfoEnabled() || live || buffered)) {
+            ConnectionKey connectionKey = new ConnectionKey(ctx.channel(), networkMessage.getRemoteAddress());
+            boolean logged = isLogged(connectionKey);
+            if (logged || live || buffered) {
+                LogRecord record = createLogRecord(ctx, networkMessage, data);
+                if (logged) {
+                    log(ctx, false, record);
+                }
+                super.channelRead(ctx, msg);
+                if (buffered) {
+                    DeviceSession deviceSession = connectionManager.getDeviceSession(connectionKey);
+                    if (deviceSession != null) {
+                        record.setUniqueId(deviceSession.getUniqueId());
+                        record.setDeviceId(deviceSession.getDeviceId());
+                        deviceLogBuffer.add(deviceSession.getDeviceId(), record);
+                    }
+                }
+                if (live) {
+                    connectionManager.updateLog(record);
+                }
+                return;
+            }
         }
+        super.channelRead(ctx, msg);
     }
 
     @Override
     public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
-        log(ctx, true, createLogRecord(ctx, msg));
+        if (msg instanceof NetworkMessage networkMessage && networkMessage.getMessage() instanceof ByteBuf data
+                && LOGGER.isInfoEnabled()) {
+            if (isLogged(new ConnectionKey(ctx.channel(), networkMessage.getRemoteAddress()))) {
+                log(ctx, true, createLogRecord(ctx, networkMessage, data));
+            }
+        }
         super.write(ctx, msg, promise);
     }
 
-    private LogRecord createLogRecord(ChannelHandlerContext ctx, Object msg) {
-        if (msg instanceof NetworkMessage networkMessage) {
-            if (networkMessage.getMessage() instanceof ByteBuf data) {
-                LogRecord record = new LogRecord(ctx.channel().localAddress(), networkMessage.getRemoteAddress());
-                record.setProtocol(protocol);
-                if (decodeTextData && BufferUtil.isPrintable(data, data.readableBytes())) {
-                    record.setData(data.getCharSequence(
-                            data.readerIndex(), data.readableBytes(), StandardCharsets.US_ASCII).toString()
-                            .replace("\r", "\\r").replace("\n", "\\n"));
-                } else {
-                    record.setData(ByteBufUtil.hexDump(data));
-                }
-                return record;
+    /**
+     * Applies protocol or device sampling to the log file output. Device messages are counted per device, so
+     * sampling works the same on datagram channels shared by many devices. The device interval is resolved once per
+     * session, so attribute changes apply after the device reconnects.
+     */
+    private boolean isLogged(ConnectionKey connectionKey) {
+        if (!LOGGER.isInfoEnabled()) {
+            return false;
+        }
+        DeviceSession deviceSession = connectionManager.getDeviceSession(connectionKey);
+        if (deviceSession != null) {
+            Integer sampling = deviceSession.get(DeviceSession.KEY_LOG_SAMPLING);
+            if (sampling == null) {
+                sampling = AttributeUtil.lookup(cacheManager, samplingKey, deviceSession.getDeviceId());
+                deviceSession.set(DeviceSession.KEY_LOG_SAMPLING, sampling);
             }
+            return deviceLogBuffer.sample(deviceSession.getDeviceId(), sampling);
         }
-        return null;
+        return protocolSampling <= 1 || messageCount++ % protocolSampling == 0;
+    }
+
+    private LogRecord createLogRecord(ChannelHandlerContext ctx, NetworkMessage networkMessage, ByteBuf data) {
+        LogRecord record = new LogRecord(ctx.channel().localAddress(), networkMessage.getRemoteAddress());
+        record.setProtocol(protocol);
+        record.setRawData(ByteBufUtil.getBytes(data), decodeTextData);
+        return record;
     }
 
     private void log(ChannelHandlerContext ctx, boolean downstream, LogRecord record) {
-        if (record != null) {
-            StringBuilder message = new StringBuilder();
-            message.append("[").append(NetworkUtil.session(ctx.channel())).append(": ");
-            message.append(protocol);
-            message.append(downstream ? " > " : " < ");
-            message.append(record.getAddress().getHostString());
-            message.append("] ");
-            message.append(record.getData());
-            LOGGER.info(message.toString());
-        }
+        StringBuilder message = new StringBuilder();
+        message.append("[").append(NetworkUtil.session(ctx.channel())).append(": ");
+        message.append(protocol);
+        message.append(downstream ? " > " : " < ");
+        message.append(record.getAddress().getHostString());
+        message.append("] ");
+        message.append(record.getData());
+        LOGGER.info(message.toString());
     }
 
 }
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2025 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.helper;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * Hands log records to a background writer through a bounded lock-free ring buffer, so callers never wait for file
+ * I/O. The writer drains records in batches and flushes the target once per batch.
+ * <p>
+ * When the buffer is full, records below {@link Level#WARNING} are dropped and counted; warnings and errors are
+ * published synchronously instead. The number of dropped records is reported in the log once space is available.
+ */
+public class AsyncLogHandler extends Handler {
+
+    private static final int BATCH_SIZE = 256;
+    private static final long IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final Handler target;
+
+    private final LogRecord[] buffer;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private long head;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private long reported;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public AsyncLogHandler(Handler target, int capacity) {
+        this.target = target;
+        int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        buffer = new LogRecord[size];
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        mask = size - 1;
+        writer = new Thread(this::drainLoop, "log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    private boolean offer(LogRecord record) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    buffer[index] = record;
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false; // full
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    private LogRecord poll() {
+        int index = (int) head & mask;
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        LogRecord record = buffer[index];
+        buffer[index] = null;
+        sequences.lazySet(index, head + buffer.length);
+        head += 1;
+        return record;
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+        if (!isLoggable(record)) {
+            return;
+        }
+        if (!running) {
+            target.publish(record);
+        } else if (!offer(record)) {
+            if (record.getLevel().intValue() >= Level.WARNING.intValue()) {
+                target.publish(record);
+            } else {
+                dropped.incrementAndGet();
+            }
+        }
+    }
+
+    private int drain() {
+        int count = 0;
+        while (count < BATCH_SIZE) {
+            LogRecord record = poll();
+            if (record == null) {
+                break;
+            }
+            target.publish(record);
+            count += 1;
+        }
+        long total = dropped.get();
+        if (total > reported) {
+            LogRecord report = new LogRecord(
+                    Level.WARNING, "Log buffer full, " + (total - reported) + " records dropped");
+            report.setLoggerName(AsyncLogHandler.class.getName());
+            target.publish(report);
+            reported = total;
+        }
+        if (count > 0) {
+            target.flush();
+        }
+        return count;
+    }
+
+    private void drainLoop() {
+        while (running) {
+            try {
+                if (drain() == 0) {
+                    LockSupport.parkNanos(this, IDLE_NANOS);
+                }
+            } catch (RuntimeException e) {
+                reportError(null, e, ErrorManager.WRITE_FAILURE);
+            }
+        }
+    }
+
+    @Override
+    public void flush() {
+        target.flush();
+    }
+
+    @Override
+    public void close() throws SecurityException {
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int count;
+        do {
+            count = drain();
+        } while (count > 0);
+        target.close();
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2018 - 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2018 - 2025 Anton Tananaev (anton@traccar.org)
  * Copyright 2018 Andrey Kunitsyn (andrey@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -83,6 +83,15 @@ public final class BufferUtil {
         return printable;
     }
 
+    public static boolean isPrintable(byte[] data) {
+        for (byte b : data) {
+            if (b < 32 && b != '\r' && b != '\n') {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public static String readString(ByteBuf buf, int length) {
         return buf.readCharSequence(length, StandardCharsets.US_ASCII).toString();
     }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012 - 2024 Anton Tananaev (anton@traccar.org)
+ * Copyright 2012 - 2025 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -58,11 +58,13 @@ public final class Log {
         private Writer writer;
         private final boolean rotate;
         private final String template;
+        private final boolean immediateFlush;
 
-        RollingFileHandler(String name, boolean rotate, String rotateInterval) {
+        RollingFileHandler(String name, boolean rotate, String rotateInterval, boolean immediateFlush) {
             this.name = name;
             this.rotate = rotate;
             this.template = rotateInterval.equalsIgnoreCase("HOUR") ? "yyyyMMddHH" : "yyyyMMdd";
+            this.immediateFlush = immediateFlush;
         }
 
         @Override
@@ -86,7 +88,9 @@ public final class Log {
                                 new OutputStreamWriter(new FileOutputStream(name, true), StandardCharsets.UTF_8));
                     }
                     writer.write(getFormatter().format(record));
-                    writer.flush();
+                    if (immediateFlush) {
+                        writer.flush();
+                    }
                 } catch (IOException e) {
                     throw new RuntimeException(e);
                 }
@@ -174,7 +178,7 @@ public final class Log {
             }
             path = new File(logsPath, "tracker-server.log").getPath();
         }
-        setupLogger(path == null, path, Level.WARNING.getName(), false, true, "DAY");
+        setupLogger(path == null, path, Level.WARNING.getName(), false, true, "DAY", 0);
     }
 
     public static void setupLogger(Config config) {
@@ -184,23 +188,25 @@ public final class Log {
                 config.getString(Keys.LOGGER_LEVEL),
                 config.getBoolean(Keys.LOGGER_FULL_STACK_TRACES),
                 config.getBoolean(Keys.LOGGER_ROTATE),
-                config.getString(Keys.LOGGER_ROTATE_INTERVAL));
+                config.getString(Keys.LOGGER_ROTATE_INTERVAL),
+                config.getBoolean(Keys.LOGGER_ASYNC) ? config.getInteger(Keys.LOGGER_ASYNC_BUFFER) : 0);
     }
 
     private static void setupLogger(
             boolean console, String file, String levelString,
-            boolean fullStackTraces, boolean rotate, String rotateInterval) {
+            boolean fullStackTraces, boolean rotate, String rotateInterval, int asyncBuffer) {
 
         Logger rootLogger = Logger.getLogger("");
         for (Handler handler : rootLogger.getHandlers()) {
             rootLogger.removeHandler(handler);
+            handler.close();
         }
 
         Handler handler;
         if (console) {
             handler = new ConsoleHandler();
         } else {
-            handler = new RollingFileHandler(file, rotate, rotateInterval);
+            handler = new RollingFileHandler(file, rotate, rotateInterval, asyncBuffer == 0);
         }
 
         handler.setFormatter(new LogFormatter(fullStackTraces));
@@ -208,6 +214,11 @@ public final class Log {
         Level level = Level.parse(levelString.toUpperCase());
         rootLogger.setLevel(level);
         handler.setLevel(level);
+
+        if (asyncBuffer > 0) {
+            handler = new AsyncLogHandler(handler, asyncBuffer);
+            handler.setLevel(level);
+        }
         handler.setFilter(record -> record != null && !record.getLoggerName().startsWith("sun"));
 
         rootLogger.addHandler(handler);
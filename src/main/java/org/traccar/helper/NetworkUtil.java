@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2025 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -24,8 +24,15 @@ public final class NetworkUtil {
     }
 
     public static String session(Channel channel) {
-        char transport = channel instanceof DatagramChannel ? 'U' : 'T';
-        return transport + channel.id().asShortText();
+        return transport(channel) + channel.id().asShortText();
+    }
+
+    public static void appendSession(StringBuilder builder, Channel channel) {
+        builder.append(transport(channel)).append(channel.id().asShortText());
+    }
+
+    private static char transport(Channel channel) {
+        return channel instanceof DatagramChannel ? 'U' : 'T';
     }
 
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2015 - 2017 Anton Tananaev (anton@traccar.org)
+ * Copyright 2015 - 2025 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -22,10 +22,16 @@ import java.util.regex.Pattern;
 
 public class Parser {
 
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
     private int position;
+    private final String input;
     private final Matcher matcher;
 
     public Parser(Pattern pattern, String input) {
+        this.input = input;
         matcher = pattern.matcher(input);
     }
 
@@ -49,8 +55,8 @@ public class Parser {
 
     public boolean hasNext(int number) {
         for (int i = position; i < position + number; i++) {
-            String value = matcher.group(i);
-            if (value == null || value.isEmpty()) {
+            int start = matcher.start(i);
+            if (start < 0 || start == matcher.end(i)) {
                 position += number;
                 return false;
             }
@@ -60,8 +66,8 @@ public class Parser {
 
     public boolean hasNextAny(int number) {
         for (int i = position; i < position + number; i++) {
-            String value = matcher.group(i);
-            if (value != null && !value.isEmpty()) {
+            int start = matcher.start(i);
+            if (start >= 0 && start != matcher.end(i)) {
                 return true;
             }
         }
@@ -73,9 +79,64 @@ public class Parser {
         return matcher.group(position++);
     }
 
+    private int parseInt(int radix) {
+        int index = position++;
+        return Integer.parseInt(input, matcher.start(index), matcher.end(index), radix);
+    }
+
+    private long parseLong(int radix) {
+        int index = position++;
+        return Long.parseLong(input, matcher.start(index), matcher.end(index), radix);
+    }
+
+    private double parseDouble() {
+        int index = position++;
+        int start = matcher.start(index);
+        int end = matcher.end(index);
+        double value = parseDecimal(input, start, end);
+        return !Double.isNaN(value) ? value : Double.parseDouble(input.substring(start, end));
+    }
+
+    /**
+     * Parses plain decimal numbers without creating a string. Returns NaN for any other format. The result is exact
+     * because both the digits and the power of ten are exactly representable, so the division is correctly rounded.
+     */
+    static double parseDecimal(CharSequence input, int start, int end) {
+        int index = start;
+        boolean negative = false;
+        if (index < end && (input.charAt(index) == '-' || input.charAt(index) == '+')) {
+            negative = input.charAt(index) == '-';
+            index += 1;
+        }
+        long digits = 0;
+        int digitCount = 0;
+        int fractionCount = -1;
+        for (; index < end; index++) {
+            char c = input.charAt(index);
+            if (c >= '0' && c <= '9') {
+                if (++digitCount > 15) {
+                    return Double.NaN;
+                }
+                digits = digits * 10 + (c - '0');
+                if (fractionCount >= 0) {
+                    fractionCount += 1;
+                }
+            } else if (c == '.' && fractionCount < 0) {
+                fractionCount = 0;
+            } else {
+                return Double.NaN;
+            }
+        }
+        if (digitCount == 0) {
+            return Double.NaN;
+        }
+        double value = fractionCount > 0 ? digits / POWERS_OF_TEN[fractionCount] : digits;
+        return negative ? -value : value;
+    }
+
     public Integer nextInt() {
         if (hasNext()) {
-            return Integer.parseInt(next());
+            return parseInt(10);
         } else {
             return null;
         }
@@ -83,7 +144,7 @@ public class Parser {
 
     public int nextInt(int defaultValue) {
         if (hasNext()) {
-            return Integer.parseInt(next());
+            return parseInt(10);
         } else {
             return defaultValue;
         }
@@ -91,7 +152,7 @@ public class Parser {
 
     public Integer nextHexInt() {
         if (hasNext()) {
-            return Integer.parseInt(next(), 16);
+            return parseInt(16);
         } else {
             return null;
         }
@@ -99,7 +160,7 @@ public class Parser {
 
     public int nextHexInt(int defaultValue) {
         if (hasNext()) {
-            return Integer.parseInt(next(), 16);
+            return parseInt(16);
         } else {
             return defaultValue;
         }
@@ -107,7 +168,7 @@ public class Parser {
 
     public Integer nextBinInt() {
         if (hasNext()) {
-            return Integer.parseInt(next(), 2);
+            return parseInt(2);
         } else {
             return null;
         }
@@ -115,7 +176,7 @@ public class Parser {
 
     public int nextBinInt(int defaultValue) {
         if (hasNext()) {
-            return Integer.parseInt(next(), 2);
+            return parseInt(2);
         } else {
             return defaultValue;
         }
@@ -123,7 +184,7 @@ public class Parser {
 
     public Long nextLong() {
         if (hasNext()) {
-            return Long.parseLong(next());
+            return parseLong(10);
         } else {
             return null;
         }
@@ -131,7 +192,7 @@ public class Parser {
 
     public Long nextHexLong() {
         if (hasNext()) {
-            return Long.parseLong(next(), 16);
+            return parseLong(16);
         } else {
             return null;
         }
@@ -143,7 +204,7 @@ public class Parser {
 
     public long nextLong(int radix, long defaultValue) {
         if (hasNext()) {
-            return Long.parseLong(next(), radix);
+            return parseLong(radix);
         } else {
             return defaultValue;
         }
@@ -151,7 +212,7 @@ public class Parser {
 
     public Double nextDouble() {
         if (hasNext()) {
-            return Double.parseDouble(next());
+            return parseDouble();
         } else {
             return null;
         }
@@ -159,7 +220,7 @@ public class Parser {
 
     public double nextDouble(double defaultValue) {
         if (hasNext()) {
-            return Double.parseDouble(next());
+            return parseDouble();
         } else {
             return defaultValue;
         }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2024 Anton Tananaev (anton@traccar.org)
+ * Copyright 2024 - 2025 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -26,13 +26,29 @@ import org.traccar.model.Position;
 import org.traccar.session.cache.CacheManager;
 
 import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
+/**
+ * Writes one line per processed position. The line is assembled in a per-thread buffer with hand-written number and
+ * date formatting, so the only allocation left on the network thread is the final message string.
+ */
 public class PositionLogger {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(PositionLogger.class);
 
+    private static final long[] POWERS = {1, 10, 100, 1000, 10000, 100000, 1000000};
+    private static final double DECIMAL_LIMIT = 1e12;
+
+    private static final class Buffer {
+        private final StringBuilder builder = new StringBuilder(256);
+        private final Calendar calendar = Calendar.getInstance();
+    }
+
+    private static final ThreadLocal<Buffer> BUFFER = ThreadLocal.withInitial(Buffer::new);
+
     private final CacheManager cacheManager;
     private final Set<String> logAttributes = new LinkedHashSet<>();
 
@@ -43,34 +59,48 @@ public class PositionLogger {
     }
 
     public void log(ChannelHandlerContext context, Position position) {
+        if (!LOGGER.isInfoEnabled()) {
+            return;
+        }
+
         Device device = cacheManager.getObject(Device.class, position.getDeviceId());
 
-        StringBuilder builder = new StringBuilder();
-        builder.append("[").append(NetworkUtil.session(context.channel())).append("] ");
-        builder.append("id: ").append(device.getUniqueId());
+        Buffer buffer = BUFFER.get();
+        StringBuilder builder = buffer.builder;
+        builder.setLength(0);
+        builder.append('[');
+        NetworkUtil.appendSession(builder, context.channel());
+        builder.append("] id: ").append(device.getUniqueId());
         for (String attribute : logAttributes) {
             switch (attribute) {
                 case "time":
-                    builder.append(", time: ").append(DateUtil.formatDate(position.getFixTime(), false));
+                    builder.append(", time: ");
+                    appendDate(builder, buffer.calendar, position.getFixTime());
                     break;
                 case "position":
-                    builder.append(", lat: ").append(String.format("%.5f", position.getLatitude()));
-                    builder.append(", lon: ").append(String.format("%.5f", position.getLongitude()));
+                    builder.append(", lat: ");
+                    appendDecimal(builder, position.getLatitude(), 5);
+                    builder.append(", lon: ");
+                    appendDecimal(builder, position.getLongitude(), 5);
                     break;
                 case "speed":
                     if (position.getSpeed() > 0) {
-                        builder.append(", speed: ").append(String.format("%.1f", position.getSpeed()));
+                        builder.append(", speed: ");
+                        appendDecimal(builder, position.getSpeed(), 1);
                     }
                     break;
                 case "course":
-                    builder.append(", course: ").append(String.format("%.1f", position.getCourse()));
+                    builder.append(", course: ");
+                    appendDecimal(builder, position.getCourse(), 1);
                     break;
                 case "altitude":
-                    builder.append(", altitude: ").append(String.format("%.1f", position.getAltitude()));
+                    builder.append(", altitude: ");
+                    appendDecimal(builder, position.getAltitude(), 1);
                     break;
                 case "accuracy":
                     if (position.getAccuracy() > 0) {
-                        builder.append(", accuracy: ").append(String.format("%.1f", position.getAccuracy()));
+                        builder.append(", accuracy: ");
+                        appendDecimal(builder, position.getAccuracy(), 1);
                     }
                     break;
                 case "outdated":
@@ -86,7 +116,8 @@ public class PositionLogger {
                 default:
                     Object value = position.getAttributes().get(attribute);
                     if (value != null) {
-                        builder.append(", ").append(attribute).append(": ").append(value);
+                        builder.append(", ").append(attribute).append(": ");
+                        appendValue(builder, value);
                     }
                     break;
             }
@@ -94,4 +125,62 @@ public class PositionLogger {
         LOGGER.info(builder.toString());
     }
 
+    private static void appendValue(StringBuilder builder, Object value) {
+        if (value instanceof Double doubleValue) {
+            builder.append(doubleValue.doubleValue());
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short) {
+            builder.append(((Number) value).longValue());
+        } else if (value instanceof Boolean booleanValue) {
+            builder.append(booleanValue.booleanValue());
+        } else {
+            builder.append(value);
+        }
+    }
+
+    /**
+     * Same output as {@code String.format("%.Nf", value)} for regular values, apart from rounding of exact binary
+     * ties, without creating a formatter.
+     */
+    static void appendDecimal(StringBuilder builder, double value, int decimals) {
+        if (Double.isNaN(value) || Double.isInfinite(value) || Math.abs(value) >= DECIMAL_LIMIT) {
+            builder.append(String.format("%." + decimals + "f", value));
+            return;
+        }
+        long factor = POWERS[decimals];
+        long scaled = Math.round(Math.abs(value) * factor);
+        if (value < 0) {
+            builder.append('-');
+        }
+        builder.append(scaled / factor);
+        if (decimals > 0) {
+            builder.append('.');
+            long fraction = scaled % factor;
+            for (long power = factor / 10; power > fraction && power > 1; power /= 10) {
+                builder.append('0');
+            }
+            builder.append(fraction);
+        }
+    }
+
+    static void appendDate(StringBuilder builder, Calendar calendar, Date date) {
+        calendar.setTimeInMillis(date.getTime());
+        builder.append(calendar.get(Calendar.YEAR)).append('-');
+        appendTwoDigits(builder, calendar.get(Calendar.MONTH) + 1);
+        builder.append('-');
+        appendTwoDigits(builder, calendar.get(Calendar.DAY_OF_MONTH));
+        builder.append(' ');
+        appendTwoDigits(builder, calendar.get(Calendar.HOUR_OF_DAY));
+        builder.append(':');
+        appendTwoDigits(builder, calendar.get(Calendar.MINUTE));
+        builder.append(':');
+        appendTwoDigits(builder, calendar.get(Calendar.SECOND));
+    }
+
+    private static void appendTwoDigits(StringBuilder builder, int value) {
+        if (value < 10) {
+            builder.append('0');
+        }
+        builder.append(value);
+    }
+
 }
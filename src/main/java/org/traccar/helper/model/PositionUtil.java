@@ -24,11 +24,13 @@ import org.traccar.storage.Storage;
 import org.traccar.storage.StorageException;
 import org.traccar.storage.query.Columns;
 import org.traccar.storage.query.Condition;
+import org.traccar.storage.query.Cursor;
 import org.traccar.storage.query.Order;
 import org.traccar.storage.query.Request;
 
 import java.util.Date;
 import java.util.List;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -72,6 +74,29 @@ public final class PositionUtil {
                 new Order("fixTime")));
     }
 
+    /**
+     * Returns up to {@code limit} positions after the cursor that match the filter. With a filter, rows are read
+     * until the page is full, so a short page always means there are no more matching positions.
+     */
+    public static List<Position> getPositionsPage(
+            Storage storage, long deviceId, Date from, Date to, Cursor cursor, int limit,
+            Predicate<Position> filter) throws StorageException {
+        Condition condition = new Condition.And(
+                new Condition.Equals("deviceId", deviceId),
+                new Condition.Between("fixTime", from, to));
+        if (cursor != null) {
+            condition = new Condition.And(condition, cursor.getCondition("fixTime"));
+        }
+        if (filter == null) {
+            return storage.getObjects(Position.class, new Request(
+                    new Columns.All(), condition, new Order(List.of("fixTime", "id"), false, limit)));
+        }
+        try (var positions = storage.getObjectsStream(Position.class, new Request(
+                new Columns.All(), condition, new Order(List.of("fixTime", "id"), false, 0)))) {
+            return positions.filter(filter).limit(limit).toList();
+        }
+    }
+
     public static Position getEdgePosition(
             Storage storage, long deviceId, Date from, Date to, boolean end) throws StorageException {
         return storage.getObject(Position.class, new Request(
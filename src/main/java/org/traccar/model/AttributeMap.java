@@ -0,0 +1,450 @@
+/*
+ * Copyright 2025 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.model;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Insertion-ordered attribute map with a compact layout. Entries live in parallel arrays, with integer, long, double
+ * and boolean values stored unboxed in a {@code long} slot, and an open-addressed index table pointing into them.
+ * Keys matching a {@code Position.KEY_*} constant are replaced with the shared constant instance, so deserialized
+ * positions do not keep their own copies of common key strings.
+ * <p>
+ * Boxed values are created again on {@link #get}, so callers should use the typed accessors where possible.
+ */
+public class AttributeMap extends AbstractMap<String, Object> {
+
+    private static final byte TYPE_OBJECT = 0;
+    private static final byte TYPE_INTEGER = 1;
+    private static final byte TYPE_LONG = 2;
+    private static final byte TYPE_DOUBLE = 3;
+    private static final byte TYPE_BOOLEAN = 4;
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int MAXIMUM_CAPACITY = Character.MAX_VALUE - 1;
+
+    private static final Map<String, String> KNOWN_KEYS = new HashMap<>();
+
+    static {
+        for (Field field : Position.class.getFields()) {
+            if (Modifier.isStatic(field.getModifiers()) && field.getName().startsWith("KEY_")
+                    && field.getType() == String.class) {
+                try {
+                    String key = (String) field.get(null);
+                    KNOWN_KEYS.put(key, key);
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+    }
+
+    private String[] keys;
+    private Object[] objects;
+    private long[] values;
+    private byte[] types;
+    private char[] table;
+    private int count;
+    private int size;
+    private int modCount;
+
+    public AttributeMap() {
+    }
+
+    public AttributeMap(Map<String, ?> map) {
+        if (!map.isEmpty()) {
+            allocate(Math.max(INITIAL_CAPACITY, map.size()));
+            map.forEach(this::put);
+        }
+    }
+
+    private void allocate(int capacity) {
+        if (capacity > MAXIMUM_CAPACITY) {
+            throw new IllegalStateException("Too many attributes");
+        }
+        keys = new String[capacity];
+        values = new long[capacity];
+        types = new byte[capacity];
+        table = new char[Integer.highestOneBit(capacity * 3 / 2) << 1];
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private int find(Object key) {
+        if (table == null || key == null) {
+            return -1;
+        }
+        int mask = table.length - 1;
+        int slot = hash(key) & mask;
+        while (table[slot] != 0) {
+            int entry = table[slot] - 1;
+            String candidate = keys[entry];
+            if (candidate == key || candidate != null && candidate.equals(key)) {
+                return entry;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int insert(String key) {
+        if (keys == null) {
+            allocate(INITIAL_CAPACITY);
+        } else if (count == keys.length) {
+            resize(size < count / 2 ? keys.length : keys.length + (keys.length >> 1));
+        }
+        String canonical = KNOWN_KEYS.getOrDefault(key, key);
+        int entry = count++;
+        keys[entry] = canonical;
+        int mask = table.length - 1;
+        int slot = hash(canonical) & mask;
+        while (table[slot] != 0 && keys[table[slot] - 1] != null) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = (char) (entry + 1);
+        size += 1;
+        modCount += 1;
+        return entry;
+    }
+
+    private void resize(int capacity) {
+        String[] oldKeys = keys;
+        Object[] oldObjects = objects;
+        objects = null;
+        long[] oldValues = values;
+        byte[] oldTypes = types;
+        int oldCount = count;
+        allocate(capacity);
+        count = 0;
+        int mask = table.length - 1;
+        for (int i = 0; i < oldCount; i++) {
+            if (oldKeys[i] != null) {
+                int entry = count++;
+                keys[entry] = oldKeys[i];
+                if (oldObjects != null && oldObjects[i] != null) {
+                    setObject(entry, oldObjects[i]);
+                }
+                values[entry] = oldValues[i];
+                types[entry] = oldTypes[i];
+                int slot = hash(oldKeys[i]) & mask;
+                while (table[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = (char) (entry + 1);
+            }
+        }
+    }
+
+    private int entryFor(String key) {
+        Objects.requireNonNull(key);
+        int entry = find(key);
+        return entry >= 0 ? entry : insert(key);
+    }
+
+    private Object valueAt(int entry) {
+        long value = values[entry];
+        return switch (types[entry]) {
+            case TYPE_INTEGER -> (int) value;
+            case TYPE_LONG -> value;
+            case TYPE_DOUBLE -> Double.longBitsToDouble(value);
+            case TYPE_BOOLEAN -> value != 0;
+            default -> objects != null ? objects[entry] : null;
+        };
+    }
+
+    private void setObject(int entry, Object object) {
+        if (objects == null) {
+            if (object == null) {
+                return;
+            }
+            objects = new Object[keys.length];
+        }
+        objects[entry] = object;
+    }
+
+    private void store(int entry, byte type, long value, Object object) {
+        types[entry] = type;
+        values[entry] = value;
+        setObject(entry, object);
+    }
+
+    public void putInt(String key, int value) {
+        store(entryFor(key), TYPE_INTEGER, value, null);
+    }
+
+    public void putLong(String key, long value) {
+        store(entryFor(key), TYPE_LONG, value, null);
+    }
+
+    public void putDouble(String key, double value) {
+        store(entryFor(key), TYPE_DOUBLE, Double.doubleToRawLongBits(value), null);
+    }
+
+    public void putBoolean(String key, boolean value) {
+        store(entryFor(key), TYPE_BOOLEAN, value ? 1 : 0, null);
+    }
+
+    /**
+     * Returns the numeric value without boxing, or the default value if the key is missing or the value is not a
+     * number stored in a primitive slot.
+     */
+    public double getDouble(String key, double defaultValue) {
+        int entry = find(key);
+        if (entry < 0) {
+            return defaultValue;
+        }
+        long value = values[entry];
+        return switch (types[entry]) {
+            case TYPE_INTEGER, TYPE_LONG -> value;
+            case TYPE_DOUBLE -> Double.longBitsToDouble(value);
+            default -> defaultValue;
+        };
+    }
+
+    public long getLong(String key, long defaultValue) {
+        int entry = find(key);
+        if (entry < 0) {
+            return defaultValue;
+        }
+        long value = values[entry];
+        return switch (types[entry]) {
+            case TYPE_INTEGER, TYPE_LONG -> value;
+            case TYPE_DOUBLE -> (long) Double.longBitsToDouble(value);
+            default -> defaultValue;
+        };
+    }
+
+    public int getInt(String key, int defaultValue) {
+        int entry = find(key);
+        if (entry < 0) {
+            return defaultValue;
+        }
+        long value = values[entry];
+        return switch (types[entry]) {
+            case TYPE_INTEGER, TYPE_LONG -> (int) value;
+            case TYPE_DOUBLE -> (int) Double.longBitsToDouble(value);
+            default -> defaultValue;
+        };
+    }
+
+    /**
+     * Returns whether the key holds a value stored in a primitive slot, so the typed getters can be used directly.
+     */
+    public boolean isPrimitive(String key) {
+        int entry = find(key);
+        return entry >= 0 && types[entry] != TYPE_OBJECT;
+    }
+
+    public boolean getBoolean(String key, boolean defaultValue) {
+        int entry = find(key);
+        return entry >= 0 && types[entry] == TYPE_BOOLEAN ? values[entry] != 0 : defaultValue;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return find(key) >= 0;
+    }
+
+    @Override
+    public Object get(Object key) {
+        int entry = find(key);
+        return entry >= 0 ? valueAt(entry) : null;
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        Objects.requireNonNull(key);
+        int entry = find(key);
+        Object previous = null;
+        if (entry >= 0) {
+            previous = valueAt(entry);
+        } else {
+            entry = insert(key);
+        }
+        if (value instanceof Integer intValue) {
+            store(entry, TYPE_INTEGER, intValue, null);
+        } else if (value instanceof Long longValue) {
+            store(entry, TYPE_LONG, longValue, null);
+        } else if (value instanceof Double doubleValue) {
+            store(entry, TYPE_DOUBLE, Double.doubleToRawLongBits(doubleValue), null);
+        } else if (value instanceof Boolean booleanValue) {
+            store(entry, TYPE_BOOLEAN, booleanValue ? 1 : 0, null);
+        } else {
+            store(entry, TYPE_OBJECT, 0, value);
+        }
+        return previous;
+    }
+
+    private void removeAt(int entry) {
+        keys[entry] = null;
+        setObject(entry, null);
+        size -= 1;
+        modCount += 1;
+    }
+
+    @Override
+    public Object remove(Object key) {
+        int entry = find(key);
+        if (entry < 0) {
+            return null;
+        }
+        Object previous = valueAt(entry);
+        removeAt(entry);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        keys = null;
+        objects = null;
+        values = null;
+        types = null;
+        table = null;
+        count = 0;
+        size = 0;
+        modCount += 1;
+    }
+
+    private final class Entry implements Map.Entry<String, Object> {
+
+        private final int index;
+
+        private Entry(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getKey() {
+            return keys[index];
+        }
+
+        @Override
+        public Object getValue() {
+            return valueAt(index);
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            return put(keys[index], value);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Map.Entry<?, ?> entry
+                    && Objects.equals(getKey(), entry.getKey()) && Objects.equals(getValue(), entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+
+    }
+
+    private final class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+
+        private final String[] snapshot = keys;
+        private int next;
+        private int current = -1;
+        private int expectedModCount = modCount;
+
+        private EntryIterator() {
+            advance();
+        }
+
+        private void advance() {
+            while (next < count && keys[next] == null) {
+                next += 1;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < count;
+        }
+
+        @Override
+        public Map.Entry<String, Object> next() {
+            if (modCount != expectedModCount || snapshot != keys) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= count) {
+                throw new NoSuchElementException();
+            }
+            current = next++;
+            advance();
+            return new Entry(current);
+        }
+
+        @Override
+        public void remove() {
+            if (current < 0) {
+                throw new IllegalStateException();
+            }
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            removeAt(current);
+            current = -1;
+            expectedModCount = modCount;
+        }
+
+    }
+
+    @Override
+    public Set<Map.Entry<String, Object>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Map.Entry<String, Object>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+
+            @Override
+            public void clear() {
+                AttributeMap.this.clear();
+            }
+        };
+    }
+
+}
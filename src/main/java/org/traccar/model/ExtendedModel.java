@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 - 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2016 - 2025 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -21,7 +21,11 @@ import java.util.Objects;
 
 public class ExtendedModel extends BaseModel {
 
-    private Map<String, Object> attributes = new LinkedHashMap<>();
+    private Map<String, Object> attributes = createAttributes();
+
+    protected Map<String, Object> createAttributes() {
+        return new LinkedHashMap<>();
+    }
 
     public boolean hasAttribute(String key) {
         return attributes.containsKey(key);
@@ -32,7 +36,39 @@ public class ExtendedModel extends BaseModel {
     }
 
     public void setAttributes(Map<String, Object> attributes) {
-        this.attributes = Objects.requireNonNullElseGet(attributes, LinkedHashMap::new);
+        this.attributes = Objects.requireNonNullElseGet(attributes, this::createAttributes);
+    }
+
+    public void set(String key, boolean value) {
+        if (attributes instanceof AttributeMap attributeMap) {
+            attributeMap.putBoolean(key, value);
+        } else {
+            attributes.put(key, value);
+        }
+    }
+
+    public void set(String key, int value) {
+        if (attributes instanceof AttributeMap attributeMap) {
+            attributeMap.putInt(key, value);
+        } else {
+            attributes.put(key, value);
+        }
+    }
+
+    public void set(String key, long value) {
+        if (attributes instanceof AttributeMap attributeMap) {
+            attributeMap.putLong(key, value);
+        } else {
+            attributes.put(key, value);
+        }
+    }
+
+    public void set(String key, double value) {
+        if (attributes instanceof AttributeMap attributeMap) {
+            attributeMap.putDouble(key, value);
+        } else {
+            attributes.put(key, value);
+        }
     }
 
     public void set(String key, Boolean value) {
@@ -98,22 +134,34 @@ public class ExtendedModel extends BaseModel {
     }
 
     public double getDouble(String key, double defaultValue) {
+        if (attributes instanceof AttributeMap attributeMap && attributeMap.isPrimitive(key)) {
+            return attributeMap.getDouble(key, defaultValue);
+        }
         return parseAsDouble(attributes.get(key), defaultValue);
     }
 
     public double getDouble(String key) {
-        return parseAsDouble(attributes.get(key), 0.0);
+        return getDouble(key, 0.0);
     }
 
     public boolean getBoolean(String key) {
+        if (attributes instanceof AttributeMap attributeMap && attributeMap.isPrimitive(key)) {
+            return attributeMap.getBoolean(key, false);
+        }
         return parseAsBoolean(attributes.get(key), false);
     }
 
     public int getInteger(String key) {
+        if (attributes instanceof AttributeMap attributeMap && attributeMap.isPrimitive(key)) {
+            return attributeMap.getInt(key, 0);
+        }
         return parseAsInteger(attributes.get(key), 0);
     }
 
     public long getLong(String key) {
+        if (attributes instanceof AttributeMap attributeMap && attributeMap.isPrimitive(key)) {
+            return attributeMap.getLong(key, 0L);
+        }
         return parseAsLong(attributes.get(key), 0L);
     }
 
@@ -1,5 +1,5 @@
 /*
- * Copyright 2023 - 2024 Anton Tananaev (anton@traccar.org)
+ * Copyright 2023 - 2025 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,10 +16,13 @@
 package org.traccar.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import org.traccar.helper.BufferUtil;
+import org.traccar.helper.DataConverter;
 import org.traccar.session.ConnectionKey;
 
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
+import java.nio.charset.StandardCharsets;
 
 public class LogRecord {
 
@@ -76,8 +79,20 @@ public class LogRecord {
     }
 
     private String data;
+    private byte[] rawData;
+    private boolean decodeText;
 
+    /**
+     * Formats raw data on first access, so records that are never displayed are not converted to hex.
+     */
     public String getData() {
+        if (data == null && rawData != null) {
+            if (decodeText && BufferUtil.isPrintable(rawData)) {
+                data = new String(rawData, StandardCharsets.US_ASCII).replace("\r", "\\r").replace("\n", "\\n");
+            } else {
+                data = DataConverter.printHex(rawData);
+            }
+        }
         return data;
     }
 
@@ -85,4 +100,10 @@ public class LogRecord {
         this.data = data;
     }
 
+    public void setRawData(byte[] rawData, boolean decodeText) {
+        this.rawData = rawData;
+        this.decodeText = decodeText;
+        this.data = null;
+    }
+
 }
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012 - 2024 Anton Tananaev (anton@traccar.org)
+ * Copyright 2012 - 2025 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -17,6 +17,7 @@ package org.traccar.model;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.traccar.storage.QueryIgnore;
@@ -208,6 +209,19 @@ public class Position extends Message {
     public static final String ALARM_BACK_COVER_OPEN = "backCoverOpen";
     public static final String ALARM_UNKNOWN = "unknown";
 
+    @Override
+    protected Map<String, Object> createAttributes() {
+        return new AttributeMap();
+    }
+
+    @Override
+    public void setAttributes(Map<String, Object> attributes) {
+        if (attributes != null && !(attributes instanceof AttributeMap)) {
+            attributes = new AttributeMap(attributes);
+        }
+        super.setAttributes(attributes);
+    }
+
     public Position() {
     }
 
@@ -0,0 +1,291 @@
+/*
+ * Copyright 2025 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.notification;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.Event;
+import org.traccar.model.Notification;
+import org.traccar.model.Position;
+import org.traccar.model.User;
+import org.traccar.notificators.Notificator;
+import org.traccar.session.cache.CacheManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends notifications outside of the event processing thread. Every notificator type has its own bounded queue and
+ * worker pool, so a slow or hanging channel can only delay its own messages. Failed messages are retried with
+ * exponential backoff. When a queue is full, new messages for that channel are dropped.
+ * <p>
+ * Channels with a digest window collect messages per user and send them as one combined message. Alarms shorten the
+ * wait to the configured alarm delay.
+ */
+@Singleton
+public class NotificationDispatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private final Config config;
+    private final CacheManager cacheManager;
+    private final NotificatorManager notificatorManager;
+
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "notification-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public static final class Channel {
+
+        private final String type;
+        private final ThreadPoolExecutor executor;
+        private final int retries;
+        private final long retryDelay;
+        private final long digestWindow;
+        private final long digestAlarmDelay;
+
+        private final Map<Long, Digest> digests = new HashMap<>();
+
+        private final AtomicLong sent = new AtomicLong();
+        private final AtomicLong digested = new AtomicLong();
+        private final AtomicLong retried = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+
+        private Channel(String type, Config config, boolean supportsDigest) {
+            this.type = type;
+            String prefix = "notificator." + type;
+            int concurrency = config.getInteger(Keys.NOTIFICATOR_CONCURRENCY.withPrefix(prefix));
+            int queueSize = config.getInteger(Keys.NOTIFICATOR_QUEUE_SIZE.withPrefix(prefix));
+            retries = config.getInteger(Keys.NOTIFICATOR_RETRIES.withPrefix(prefix));
+            retryDelay = config.getLong(Keys.NOTIFICATOR_RETRY_DELAY.withPrefix(prefix));
+            digestWindow = supportsDigest ? config.getLong(Keys.NOTIFICATOR_DIGEST_WINDOW.withPrefix(prefix)) : 0;
+            digestAlarmDelay = config.getLong(Keys.NOTIFICATOR_DIGEST_ALARM_DELAY.withPrefix(prefix));
+
+            AtomicInteger counter = new AtomicInteger();
+            executor = new ThreadPoolExecutor(
+                    concurrency, concurrency, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueSize),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "notificator-" + type + "-" + counter.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            executor.allowCoreThreadTimeOut(true);
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public int getQueueSize() {
+            return executor.getQueue().size();
+        }
+
+        public int getActiveCount() {
+            return executor.getActiveCount();
+        }
+
+        public long getSent() {
+            return sent.get();
+        }
+
+        public long getDigested() {
+            return digested.get();
+        }
+
+        public long getRetried() {
+            return retried.get();
+        }
+
+        public long getFailed() {
+            return failed.get();
+        }
+
+        public long getDropped() {
+            return dropped.get();
+        }
+
+    }
+
+    private record Message(Notification notification, User user, Event event, Position position, Object key) {
+    }
+
+    private static final class Digest {
+        private final List<Message> messages = new ArrayList<>();
+        private ScheduledFuture<?> future;
+        private long deadline;
+    }
+
+    @Inject
+    public NotificationDispatcher(Config config, CacheManager cacheManager, NotificatorManager notificatorManager) {
+        this.config = config;
+        this.cacheManager = cacheManager;
+        this.notificatorManager = notificatorManager;
+    }
+
+    /**
+     * Per channel delivery statistics, exposed to administrators through the server API.
+     */
+    public Collection<Channel> getChannels() {
+        return channels.values();
+    }
+
+    private Channel getChannel(String type) {
+        return channels.computeIfAbsent(type, key -> {
+            boolean supportsDigest;
+            try {
+                supportsDigest = notificatorManager.getNotificator(type).supportsDigest();
+            } catch (RuntimeException e) {
+                supportsDigest = false;
+            }
+            return new Channel(type, config, supportsDigest);
+        });
+    }
+
+    /**
+     * Queues a notification. The device stays referenced in the cache until the message is sent or dropped, because
+     * formatting happens on the worker thread.
+     */
+    public void dispatch(String type, Notification notification, User user, Event event, Position position) {
+        var key = new Object();
+        try {
+            cacheManager.addDevice(event.getDeviceId(), key);
+        } catch (Exception e) {
+            LOGGER.warn("Notification cache error", e);
+            return;
+        }
+        Channel channel = getChannel(type);
+        Message message = new Message(notification, user, event, position, key);
+        if (channel.digestWindow > 0) {
+            addToDigest(channel, message);
+        } else {
+            submit(channel, List.of(message), 0);
+        }
+    }
+
+    private void addToDigest(Channel channel, Message message) {
+        long currentTime = System.currentTimeMillis();
+        boolean alarm = message.event.getType().equals(Event.TYPE_ALARM);
+        long deadline = currentTime + (alarm
+                ? Math.min(channel.digestAlarmDelay, channel.digestWindow) : channel.digestWindow);
+        long userId = message.user.getId();
+        synchronized (channel.digests) {
+            Digest digest = channel.digests.computeIfAbsent(userId, key -> new Digest());
+            digest.messages.add(message);
+            if (digest.future == null || deadline < digest.deadline) {
+                if (digest.future != null) {
+                    digest.future.cancel(false);
+                }
+                digest.deadline = deadline;
+                digest.future = timer.schedule(
+                        () -> flushDigest(channel, userId, digest), deadline - currentTime, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void flushDigest(Channel channel, long userId, Digest digest) {
+        synchronized (channel.digests) {
+            if (!channel.digests.remove(userId, digest)) {
+                return; // already flushed
+            }
+        }
+        submit(channel, digest.messages, 0);
+    }
+
+    private void submit(Channel channel, List<Message> messages, int attempt) {
+        try {
+            channel.executor.execute(() -> send(channel, messages, attempt));
+        } catch (RejectedExecutionException e) {
+            channel.dropped.addAndGet(messages.size());
+            LOGGER.warn("Notification queue {} is full, {} messages dropped", channel.type, messages.size());
+            release(messages);
+        }
+    }
+
+    /**
+     * Starts delivery on the channel worker. Notificators that deliver in the background complete later, so retries
+     * and statistics are handled on completion instead of holding the worker.
+     */
+    private void send(Channel channel, List<Message> messages, int attempt) {
+        CompletableFuture<Void> result;
+        try {
+            Notificator notificator = notificatorManager.getNotificator(channel.type);
+            Message first = messages.get(0);
+            if (messages.size() == 1) {
+                result = notificator.sendAsync(first.notification, first.user, first.event, first.position);
+            } else {
+                var formatted = messages.stream()
+                        .map(m -> notificator.formatMessage(m.notification, m.user, m.event, m.position))
+                        .toList();
+                result = notificator.sendAsync(first.user, notificator.formatDigest(formatted), null, null);
+            }
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((ignored, error) -> complete(channel, messages, attempt, error));
+    }
+
+    private void complete(Channel channel, List<Message> messages, int attempt, Throwable error) {
+        if (error instanceof CompletionException) {
+            error = error.getCause();
+        }
+        if (error == null) {
+            if (messages.size() > 1) {
+                channel.digested.addAndGet(messages.size());
+            }
+            channel.sent.incrementAndGet();
+            release(messages);
+        } else if (error instanceof MessageException && attempt < channel.retries) {
+            channel.retried.incrementAndGet();
+            long delay = channel.retryDelay << attempt;
+            LOGGER.info("Notification {} failed, retrying in {} ms", channel.type, delay);
+            timer.schedule(() -> submit(channel, messages, attempt + 1), delay, TimeUnit.MILLISECONDS);
+        } else {
+            channel.failed.incrementAndGet();
+            LOGGER.warn("Notification failed", error);
+            release(messages);
+        }
+    }
+
+    private void release(List<Message> messages) {
+        for (Message message : messages) {
+            cacheManager.removeDevice(message.event.getDeviceId(), message.key);
+        }
+    }
+
+}
@@ -39,6 +39,9 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
 import java.security.GeneralSecurityException;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 @Singleton
 public class TextTemplateFormatter {
@@ -49,6 +52,12 @@ public class TextTemplateFormatter {
     private final TokenManager tokenManager;
     private final LocaleManager localeManager;
     private final String templatesRoot;
+    private final long checkInterval;
+
+    private record TemplateFile(Path path, long expiration) {
+    }
+
+    private final Map<String, TemplateFile> templateFiles = new ConcurrentHashMap<>();
 
     @Inject
     public TextTemplateFormatter(
@@ -57,6 +66,7 @@ public class TextTemplateFormatter {
         this.tokenManager = tokenManager;
         this.localeManager = localeManager;
         templatesRoot = config.getString(Keys.TEMPLATES_ROOT);
+        checkInterval = TimeUnit.SECONDS.toMillis(config.getInteger(Keys.TEMPLATES_CHECK_INTERVAL));
     }
 
     public VelocityContext prepareContext(Server server, User user) {
@@ -82,10 +92,22 @@ public class TextTemplateFormatter {
         return velocityContext;
     }
 
+    private Path getTemplateFile(String language, String name) {
+        long currentTime = System.currentTimeMillis();
+        TemplateFile templateFile = templateFiles.compute(language + '/' + name, (key, cached) -> {
+            if (cached != null && (checkInterval == 0 || cached.expiration > currentTime)) {
+                return cached;
+            }
+            Path path = localeManager.getTemplateFile(templatesRoot, "notifications", language, name + ".vm");
+            return new TemplateFile(path, currentTime + checkInterval);
+        });
+        return templateFile.path;
+    }
+
     public NotificationMessage formatMessage(VelocityContext velocityContext, String name, boolean priority) {
         StringWriter writer = new StringWriter();
         String language = (String) velocityContext.get("language");
-        Path filePath = localeManager.getTemplateFile(templatesRoot, "notifications", language, name + ".vm");
+        Path filePath = getTemplateFile(language, name);
         if (filePath != null) {
             Template template = velocityEngine.getTemplate(filePath.toString(), StandardCharsets.UTF_8.name());
             template.merge(velocityContext, writer);
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2025 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.notificators;
+
+import com.google.auth.oauth2.GoogleCredentials;
+import com.google.firebase.FirebaseApp;
+import com.google.firebase.FirebaseOptions;
+import com.google.firebase.messaging.AndroidConfig;
+import com.google.firebase.messaging.AndroidNotification;
+import com.google.firebase.messaging.ApnsConfig;
+import com.google.firebase.messaging.Aps;
+import com.google.firebase.messaging.BatchResponse;
+import com.google.firebase.messaging.FirebaseMessaging;
+import com.google.firebase.messaging.MessagingErrorCode;
+import com.google.firebase.messaging.MulticastMessage;
+import com.google.firebase.messaging.Notification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+public class FirebaseAdminTransport implements FirebaseTransport {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FirebaseAdminTransport.class);
+
+    private final FirebaseMessaging firebaseMessaging;
+
+    public FirebaseAdminTransport(String serviceAccount) throws IOException {
+        InputStream serviceAccountStream = new ByteArrayInputStream(serviceAccount.getBytes());
+
+        FirebaseOptions options = FirebaseOptions.builder()
+                .setCredentials(GoogleCredentials.fromStream(serviceAccountStream))
+                .build();
+
+        firebaseMessaging = FirebaseMessaging.getInstance(
+                FirebaseApp.initializeApp(options, "manager"));
+    }
+
+    @Override
+    public CompletableFuture<Set<String>> send(Message message, List<String> tokens) {
+        var androidConfig = AndroidConfig.builder()
+                .setNotification(AndroidNotification.builder().setSound("default").build());
+
+        var apnsConfig = ApnsConfig.builder()
+                .setAps(Aps.builder().setSound("default").build());
+
+        if (message.priority()) {
+            androidConfig.setPriority(AndroidConfig.Priority.HIGH);
+            apnsConfig.putHeader("apns-priority", "10");
+        }
+
+        var messageBuilder = MulticastMessage.builder()
+                .setNotification(Notification.builder()
+                        .setTitle(message.title())
+                        .setBody(message.body())
+                        .build())
+                .setAndroidConfig(androidConfig.build())
+                .setApnsConfig(apnsConfig.build())
+                .addAllTokens(tokens);
+
+        if (message.eventId() != 0) {
+            messageBuilder.putData("eventId", String.valueOf(message.eventId()));
+        }
+
+        CompletableFuture<Set<String>> result = new CompletableFuture<>();
+        var future = firebaseMessaging.sendEachForMulticastAsync(messageBuilder.build());
+        future.addListener(() -> {
+            try {
+                result.complete(getInvalidTokens(future.get(), tokens));
+            } catch (ExecutionException e) {
+                result.completeExceptionally(e.getCause());
+            } catch (InterruptedException e) {
+                result.completeExceptionally(e);
+            }
+        }, Runnable::run);
+        return result;
+    }
+
+    private Set<String> getInvalidTokens(BatchResponse batchResponse, List<String> tokens) {
+        Set<String> invalidTokens = new HashSet<>();
+        var iterator = batchResponse.getResponses().listIterator();
+        while (iterator.hasNext()) {
+            int index = iterator.nextIndex();
+            var response = iterator.next();
+            if (!response.isSuccessful()) {
+                MessagingErrorCode error = response.getException().getMessagingErrorCode();
+                if (error == MessagingErrorCode.INVALID_ARGUMENT || error == MessagingErrorCode.UNREGISTERED) {
+                    invalidTokens.add(tokens.get(index));
+                }
+                LOGGER.warn("Firebase token error", response.getException());
+            }
+        }
+        return invalidTokens;
+    }
+
+}
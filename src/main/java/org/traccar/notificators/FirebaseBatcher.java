@@ -0,0 +1,150 @@
+/*
+ * Copyright 2025 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.notificators;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Merges registration tokens of different users that receive the same message into multicast batches. A batch is
+ * sent when it reaches the FCM limit of {@link #MAX_TOKENS} tokens or when the batching delay expires. Invalid tokens
+ * from a batch are reported together, grouped by user. Each caller gets a future that completes once all batches
+ * containing its tokens are sent, or fails with the transport error.
+ */
+public class FirebaseBatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FirebaseBatcher.class);
+
+    public static final int MAX_TOKENS = 500;
+
+    public interface InvalidTokensHandler {
+        void onInvalidTokens(Map<Long, Set<String>> invalidTokens);
+    }
+
+    private static final class Batch {
+        private final List<String> tokens = new ArrayList<>();
+        private final List<Long> users = new ArrayList<>();
+        private final CompletableFuture<Void> result = new CompletableFuture<>();
+        private ScheduledFuture<?> future;
+    }
+
+    private final FirebaseTransport transport;
+    private final ScheduledExecutorService executor;
+    private final long delay;
+    private final InvalidTokensHandler invalidTokensHandler;
+
+    private final Map<FirebaseTransport.Message, Batch> batches = new HashMap<>();
+
+    public FirebaseBatcher(
+            FirebaseTransport transport, ScheduledExecutorService executor, long delay,
+            InvalidTokensHandler invalidTokensHandler) {
+        this.transport = transport;
+        this.executor = executor;
+        this.delay = delay;
+        this.invalidTokensHandler = invalidTokensHandler;
+    }
+
+    public CompletableFuture<Void> add(FirebaseTransport.Message message, long userId, List<String> tokens) {
+        List<Batch> ready = new ArrayList<>();
+        Set<Batch> used = new HashSet<>();
+        synchronized (batches) {
+            for (String token : tokens) {
+                Batch batch = batches.computeIfAbsent(message, key -> new Batch());
+                used.add(batch);
+                batch.tokens.add(token);
+                batch.users.add(userId);
+                if (batch.tokens.size() >= MAX_TOKENS) {
+                    batches.remove(message);
+                    ready.add(batch);
+                }
+            }
+            Batch batch = batches.get(message);
+            if (batch != null && batch.future == null) {
+                if (delay > 0) {
+                    batch.future = executor.schedule(() -> flush(message, batch), delay, TimeUnit.MILLISECONDS);
+                } else {
+                    batches.remove(message);
+                    ready.add(batch);
+                }
+            }
+        }
+        for (Batch batch : ready) {
+            send(message, batch);
+        }
+        return CompletableFuture.allOf(used.stream().map(batch -> batch.result).toArray(CompletableFuture[]::new));
+    }
+
+    private void flush(FirebaseTransport.Message message, Batch batch) {
+        synchronized (batches) {
+            if (!batches.remove(message, batch)) {
+                return;
+            }
+        }
+        send(message, batch);
+    }
+
+    /**
+     * Sends all pending batches immediately.
+     */
+    public void flush() {
+        Map<FirebaseTransport.Message, Batch> pending;
+        synchronized (batches) {
+            pending = new HashMap<>(batches);
+            batches.clear();
+        }
+        pending.forEach((message, batch) -> {
+            if (batch.future != null) {
+                batch.future.cancel(false);
+            }
+            send(message, batch);
+        });
+    }
+
+    private void send(FirebaseTransport.Message message, Batch batch) {
+        transport.send(message, batch.tokens).whenComplete((invalidTokens, error) -> {
+            if (error != null) {
+                batch.result.completeExceptionally(error);
+                return;
+            }
+            if (!invalidTokens.isEmpty()) {
+                Map<Long, Set<String>> userTokens = new HashMap<>();
+                for (int i = 0; i < batch.tokens.size(); i++) {
+                    if (invalidTokens.contains(batch.tokens.get(i))) {
+                        userTokens.computeIfAbsent(batch.users.get(i), k -> new HashSet<>()).add(batch.tokens.get(i));
+                    }
+                }
+                try {
+                    invalidTokensHandler.onInvalidTokens(userTokens);
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Firebase invalid token handling error", e);
+                }
+            }
+            batch.result.complete(null);
+        });
+    }
+
+}
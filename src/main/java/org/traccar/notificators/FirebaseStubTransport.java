@@ -0,0 +1,57 @@
+/*
+ * Copyright 2025 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.notificators;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Local transport that does not connect to Firebase. Messages are logged and recorded. Tokens starting with
+ * {@link #INVALID_PREFIX} are reported as invalid, which makes it possible to test token cleanup offline.
+ */
+public class FirebaseStubTransport implements FirebaseTransport {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FirebaseStubTransport.class);
+
+    public static final String INVALID_PREFIX = "invalid";
+
+    public record Delivery(Message message, List<String> tokens) {
+    }
+
+    private final List<Delivery> deliveries = new ArrayList<>();
+
+    public synchronized List<Delivery> getDeliveries() {
+        return new ArrayList<>(deliveries);
+    }
+
+    @Override
+    public CompletableFuture<Set<String>> send(Message message, List<String> tokens) {
+        synchronized (this) {
+            deliveries.add(new Delivery(message, List.copyOf(tokens)));
+        }
+        LOGGER.info("Firebase stub message '{}' to {} tokens", message.title(), tokens.size());
+        return CompletableFuture.completedFuture(tokens.stream()
+                .filter(token -> token.startsWith(INVALID_PREFIX))
+                .collect(Collectors.toSet()));
+    }
+
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2025 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.notificators;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Delivers one push message to a list of registration tokens.
+ */
+public interface FirebaseTransport {
+
+    record Message(String title, String body, boolean priority, long eventId) {
+    }
+
+    /**
+     * Sends the message asynchronously. The result contains tokens that are no longer valid and should be removed.
+     */
+    CompletableFuture<Set<String>> send(Message message, List<String> tokens);
+
+}
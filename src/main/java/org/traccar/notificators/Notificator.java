@@ -1,5 +1,5 @@
 /*
- * Copyright 2018 - 2024 Anton Tananaev (anton@traccar.org)
+ * Copyright 2018 - 2025 Anton Tananaev (anton@traccar.org)
  * Copyright 2018 Andrey Kunitsyn (andrey@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -24,6 +24,10 @@ import org.traccar.notification.MessageException;
 import org.traccar.notification.NotificationFormatter;
 import org.traccar.notification.NotificationMessage;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
 public abstract class Notificator {
 
     private final NotificationFormatter notificationFormatter;
@@ -37,8 +41,59 @@ public abstract class Notificator {
         send(user, message, event, position);
     }
 
+    public NotificationMessage formatMessage(Notification notification, User user, Event event, Position position) {
+        return notificationFormatter.formatMessage(notification, user, event, position);
+    }
+
+    /**
+     * Notificators without a formatter handle every event separately, so their messages can't be combined.
+     */
+    public boolean supportsDigest() {
+        return notificationFormatter != null;
+    }
+
+    /**
+     * Combines several messages for the same user into one. The messages can belong to different notifications and
+     * devices, so the digest is sent without an event or position.
+     */
+    public NotificationMessage formatDigest(List<NotificationMessage> messages) {
+        String digest = messages.stream().map(NotificationMessage::digest).collect(Collectors.joining("\n"));
+        boolean priority = messages.stream().anyMatch(NotificationMessage::priority);
+        return new NotificationMessage(formatDigestSubject(messages), digest, digest, priority);
+    }
+
+    protected static String formatDigestSubject(List<NotificationMessage> messages) {
+        String subject = messages.get(0).subject();
+        if (subject != null && messages.stream().allMatch(message -> subject.equals(message.subject()))) {
+            return subject;
+        }
+        return messages.size() + " notifications";
+    }
+
     public void send(User user, NotificationMessage message, Event event, Position position) throws MessageException {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Sends a notification without waiting for delivery. By default the message is sent on the calling thread and the
+     * result is already complete, notificators that deliver in the background override both variants.
+     */
+    public CompletableFuture<Void> sendAsync(Notification notification, User user, Event event, Position position) {
+        try {
+            send(notification, user, event, position);
+            return CompletableFuture.completedFuture(null);
+        } catch (MessageException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public CompletableFuture<Void> sendAsync(User user, NotificationMessage message, Event event, Position position) {
+        try {
+            send(user, message, event, position);
+            return CompletableFuture.completedFuture(null);
+        } catch (MessageException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
 }
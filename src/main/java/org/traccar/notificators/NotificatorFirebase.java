@@ -16,16 +16,6 @@
  */
 package org.traccar.notificators;
 
-import com.google.auth.oauth2.GoogleCredentials;
-import com.google.firebase.FirebaseApp;
-import com.google.firebase.FirebaseOptions;
-import com.google.firebase.messaging.AndroidConfig;
-import com.google.firebase.messaging.AndroidNotification;
-import com.google.firebase.messaging.ApnsConfig;
-import com.google.firebase.messaging.Aps;
-import com.google.firebase.messaging.FirebaseMessaging;
-import com.google.firebase.messaging.MessagingErrorCode;
-import com.google.firebase.messaging.MulticastMessage;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import org.slf4j.Logger;
@@ -33,6 +23,7 @@ import org.slf4j.LoggerFactory;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
 import org.traccar.model.Event;
+import org.traccar.model.Notification;
 import org.traccar.model.ObjectOperation;
 import org.traccar.model.Position;
 import org.traccar.model.User;
@@ -45,22 +36,28 @@ import org.traccar.storage.query.Columns;
 import org.traccar.storage.query.Condition;
 import org.traccar.storage.query.Request;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
 
 @Singleton
 public class NotificatorFirebase extends Notificator {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(NotificatorFirebase.class);
 
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[, ]");
+
     private final Storage storage;
     private final CacheManager cacheManager;
-    private final FirebaseMessaging firebaseMessaging;
+    private final FirebaseBatcher batcher;
 
     @Inject
     public NotificatorFirebase(
@@ -70,77 +67,82 @@ public class NotificatorFirebase extends Notificator {
         this.storage = storage;
         this.cacheManager = cacheManager;
 
-        InputStream serviceAccount = new ByteArrayInputStream(
-                config.getString(Keys.NOTIFICATOR_FIREBASE_SERVICE_ACCOUNT).getBytes());
-
-        FirebaseOptions options = FirebaseOptions.builder()
-                .setCredentials(GoogleCredentials.fromStream(serviceAccount))
-                .build();
+        FirebaseTransport transport;
+        if (config.getBoolean(Keys.NOTIFICATOR_FIREBASE_STUB)) {
+            transport = new FirebaseStubTransport();
+        } else {
+            transport = new FirebaseAdminTransport(config.getString(Keys.NOTIFICATOR_FIREBASE_SERVICE_ACCOUNT));
+        }
 
-        firebaseMessaging = FirebaseMessaging.getInstance(
-                FirebaseApp.initializeApp(options, "manager"));
+        var executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "firebase-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        batcher = new FirebaseBatcher(
+                transport, executor, config.getLong(Keys.NOTIFICATOR_FIREBASE_BATCH_DELAY), this::removeTokens);
     }
 
     @Override
     public void send(User user, NotificationMessage message, Event event, Position position) throws MessageException {
-        if (user.hasAttribute("notificationTokens")) {
-
-            List<String> registrationTokens = new ArrayList<>(
-                    Arrays.asList(user.getString("notificationTokens").split("[, ]")));
-
-            var androidConfig = AndroidConfig.builder()
-                    .setNotification(AndroidNotification.builder().setSound("default").build());
-
-            var apnsConfig = ApnsConfig.builder()
-                    .setAps(Aps.builder().setSound("default").build());
-
-            if (message.priority()) {
-                androidConfig.setPriority(AndroidConfig.Priority.HIGH);
-                apnsConfig.putHeader("apns-priority", "10");
-            }
+        try {
+            sendAsync(user, message, event, position).get();
+        } catch (ExecutionException e) {
+            throw (MessageException) e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessageException(e);
+        }
+    }
 
-            var messageBuilder = MulticastMessage.builder()
-                    .setNotification(com.google.firebase.messaging.Notification.builder()
-                            .setTitle(message.subject())
-                            .setBody(message.digest())
-                            .build())
-                    .setAndroidConfig(androidConfig.build())
-                    .setApnsConfig(apnsConfig.build())
-                    .addAllTokens(registrationTokens);
+    @Override
+    public CompletableFuture<Void> sendAsync(Notification notification, User user, Event event, Position position) {
+        return sendAsync(user, formatMessage(notification, user, event, position), event, position);
+    }
 
-            if (event != null) {
-                messageBuilder.putData("eventId", String.valueOf(event.getId()));
-            }
+    /**
+     * Completes when the batch with the user's tokens is sent, so the dispatcher worker is not blocked while the batch
+     * collects tokens of other users.
+     */
+    @Override
+    public CompletableFuture<Void> sendAsync(User user, NotificationMessage message, Event event, Position position) {
+        if (!user.hasAttribute("notificationTokens")) {
+            return CompletableFuture.completedFuture(null);
+        }
+        List<String> registrationTokens = TOKEN_SEPARATOR.splitAsStream(user.getString("notificationTokens"))
+                .filter(token -> !token.isEmpty())
+                .toList();
+        return batcher.add(
+                new FirebaseTransport.Message(
+                        message.subject(), message.digest(), message.priority(),
+                        event != null ? event.getId() : 0),
+                user.getId(), registrationTokens).exceptionallyCompose(error -> CompletableFuture.failedFuture(
+                        new MessageException(error instanceof CompletionException ? error.getCause() : error)));
+    }
 
+    private void removeTokens(Map<Long, Set<String>> invalidTokens) {
+        for (var entry : invalidTokens.entrySet()) {
             try {
-                var result = firebaseMessaging.sendEachForMulticast(messageBuilder.build());
-                List<String> failedTokens = new LinkedList<>();
-                var iterator = result.getResponses().listIterator();
-                while (iterator.hasNext()) {
-                    int index = iterator.nextIndex();
-                    var response = iterator.next();
-                    if (!response.isSuccessful()) {
-                        MessagingErrorCode error = response.getException().getMessagingErrorCode();
-                        if (error == MessagingErrorCode.INVALID_ARGUMENT || error == MessagingErrorCode.UNREGISTERED) {
-                            failedTokens.add(registrationTokens.get(index));
-                        }
-                        LOGGER.warn("Firebase user {} error", user.getId(), response.getException());
-                    }
+                User user = storage.getObject(User.class, new Request(
+                        new Columns.All(), new Condition.Equals("id", entry.getKey())));
+                if (user == null || !user.hasAttribute("notificationTokens")) {
+                    continue;
                 }
-                if (!failedTokens.isEmpty()) {
-                    registrationTokens.removeAll(failedTokens);
-                    if (registrationTokens.isEmpty()) {
-                        user.removeAttribute("notificationTokens");
-                    } else {
-                        user.set("notificationTokens", String.join(",", registrationTokens));
-                    }
-                    storage.updateObject(user, new Request(
-                            new Columns.Include("attributes"),
-                            new Condition.Equals("id", user.getId())));
-                    cacheManager.invalidateObject(true, User.class, user.getId(), ObjectOperation.UPDATE);
+                List<String> registrationTokens = new ArrayList<>(
+                        Arrays.asList(TOKEN_SEPARATOR.split(user.getString("notificationTokens"))));
+                registrationTokens.removeAll(entry.getValue());
+                registrationTokens.removeIf(String::isEmpty);
+                if (registrationTokens.isEmpty()) {
+                    user.removeAttribute("notificationTokens");
+                } else {
+                    user.set("notificationTokens", String.join(",", registrationTokens));
                 }
+                storage.updateObject(user, new Request(
+                        new Columns.Include("attributes"),
+                        new Condition.Equals("id", user.getId())));
+                cacheManager.invalidateObject(true, User.class, user.getId(), ObjectOperation.UPDATE);
             } catch (Exception e) {
-                LOGGER.warn("Firebase error", e);
+                LOGGER.warn("Firebase user {} token cleanup error", entry.getKey(), e);
             }
         }
     }
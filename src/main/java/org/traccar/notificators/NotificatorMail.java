@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 - 2024 Anton Tananaev (anton@traccar.org)
+ * Copyright 2016 - 2025 Anton Tananaev (anton@traccar.org)
  * Copyright 2017 - 2018 Andrey Kunitsyn (andrey@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -27,6 +27,9 @@ import org.traccar.notification.MessageException;
 import org.traccar.notification.NotificationFormatter;
 import org.traccar.notification.NotificationMessage;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 @Singleton
 public class NotificatorMail extends Notificator {
 
@@ -38,6 +41,34 @@ public class NotificatorMail extends Notificator {
         this.mailManager = mailManager;
     }
 
+    @Override
+    public NotificationMessage formatDigest(List<NotificationMessage> messages) {
+        String body = messages.stream()
+                .map(message -> escapeHtml(message.digest()))
+                .collect(Collectors.joining("<br>\n", "<!DOCTYPE html>\n<html>\n<body>\n", "\n</body>\n</html>"));
+        boolean priority = messages.stream().anyMatch(NotificationMessage::priority);
+        return new NotificationMessage(formatDigestSubject(messages), null, body, priority);
+    }
+
+    static String escapeHtml(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder result = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<' -> result.append("&lt;");
+                case '>' -> result.append("&gt;");
+                case '&' -> result.append("&amp;");
+                case '"' -> result.append("&quot;");
+                case '\'' -> result.append("&#39;");
+                default -> result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
     @Override
     public void send(User user, NotificationMessage message, Event event, Position position) throws MessageException {
         try {
@@ -1,5 +1,5 @@
 /*
- * Copyright 2012 - 2025 Anton Tananaev (anton@traccar.org)
+ * Copyright 2025 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,61 +16,54 @@
 package org.traccar.protocol;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import org.traccar.BaseFrameDecoder;
 
-import java.text.ParseException;
-
+/**
+ * Splits the stream into complete MGA frames: start byte, little endian length, serial number, payload, checksum and
+ * end byte. Bytes that do not start a plausible frame are skipped, so the decoder resynchronizes on the next start
+ * byte instead of closing the connection.
+ */
 public class MgaFrameDecoder extends BaseFrameDecoder {
 
+    public static final int MIN_LENGTH = 9; // serial number, empty payload and checksum
+    public static final int MAX_LENGTH = 16384;
+
     @Override
     protected Object decode(
             ChannelHandlerContext ctx, Channel channel, ByteBuf buf) throws Exception {
 
-        if (buf.readableBytes() < 10) {
-            return null;
-        }
+        while (true) {
+            int start = buf.indexOf(buf.readerIndex(), buf.writerIndex(), (byte) MgaProtocolDecoder.FRAME_START);
+            if (start < 0) {
+                buf.skipBytes(buf.readableBytes());
+                return null;
+            }
+            buf.readerIndex(start);
 
-        char type = (char) buf.getByte(buf.readerIndex());
+            if (buf.readableBytes() < 3) {
+                return null;
+            }
 
-        if (type == '$') {
-            boolean longFormat = Jt600ProtocolDecoder.isLongFormat(buf);
-            int length = buf.getUnsignedShort(buf.readerIndex() + (longFormat ? 8 : 7)) + 10;
-            if (length <= buf.readableBytes()) {
-                return buf.readRetainedSlice(length);
+            int length = buf.getUnsignedShortLE(start + 1);
+            if (length < MIN_LENGTH || length > MAX_LENGTH) {
+                buf.skipBytes(1);
+                continue;
             }
-        } else if (type == '(') {
-            int endIndex = buf.indexOf(buf.readerIndex(), buf.writerIndex(), (byte) ')');
-            if (endIndex >= 0) {
-                ByteBuf result = Unpooled.buffer(endIndex + 1 - buf.readerIndex());
 
-                while (buf.readerIndex() <= endIndex) {
-                    int b = buf.readUnsignedByte();
-                    if (b == 0x3d) {
-                        int ext = buf.readUnsignedByte();
-                        if (ext == 0x15) {
-                            result.writeByte(0x28);
-                        } else if (ext == 0x14) {
-                            result.writeByte(0x29);
-                        } else if (ext == 0x11) {
-                            result.writeByte(0x2c);
-                        } else if (ext == 0x00) {
-                            result.writeByte(0x3d);
-                        }
-                    } else {
-                        result.writeByte(b);
-                    }
-                }
+            int frameLength = 1 + 2 + length + 1;
+            if (buf.readableBytes() < frameLength) {
+                return null;
+            }
 
-                return result;
+            if (buf.getUnsignedByte(start + frameLength - 1) != MgaProtocolDecoder.FRAME_END) {
+                buf.skipBytes(1);
+                continue;
             }
-        } else {
-            throw new ParseException(null, 0); // unknown message
-        }
 
-        return null;
+            return buf.readRetainedSlice(frameLength);
+        }
     }
 
 }
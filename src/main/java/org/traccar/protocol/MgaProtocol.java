@@ -1,6 +1,5 @@
 package org.traccar.protocol;
 
-import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
 import io.netty.handler.codec.string.StringEncoder;
 import org.traccar.BaseProtocol;
 import org.traccar.PipelineBuilder;
@@ -22,6 +21,7 @@ public class MgaProtocol extends BaseProtocol {
         addServer(new TrackerServer(config, getName(), false) {
             @Override
             protected void addProtocolHandlers(PipelineBuilder pipeline, Config config) {
+                pipeline.addLast(new MgaFrameDecoder());
                 pipeline.addLast(new StringEncoder());
                 pipeline.addLast(new MgaProtocolEncoder(MgaProtocol.this));
                 pipeline.addLast(new MgaProtocolDecoder(MgaProtocol.this));
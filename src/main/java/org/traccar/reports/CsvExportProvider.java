@@ -16,6 +16,8 @@
 package org.traccar.reports;
 
 import org.traccar.api.security.PermissionsService;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
 import org.traccar.helper.model.PositionUtil;
 import org.traccar.helper.model.UserUtil;
 import org.traccar.model.Geofence;
@@ -30,50 +32,72 @@ import org.traccar.storage.query.Request;
 
 import java.io.OutputStream;
 import java.io.PrintWriter;
-import java.text.SimpleDateFormat;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.LinkedHashMap;
-import java.util.Objects;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class CsvExportProvider {
 
+    private final Config config;
     private final Storage storage;
     private final PermissionsService permissionsService;
 
     @Inject
-    public CsvExportProvider(Storage storage, PermissionsService permissionsService) {
+    public CsvExportProvider(Config config, Storage storage, PermissionsService permissionsService) {
+        this.config = config;
         this.storage = storage;
         this.permissionsService = permissionsService;
     }
 
+    private Set<String> getAttributes(long deviceId, Geofence geofence, Date from, Date to) throws StorageException {
+        String configured = config.getString(Keys.REPORT_CSV_ATTRIBUTES);
+        if (configured != null) {
+            return Arrays.stream(configured.split(","))
+                    .map(String::trim)
+                    .filter(key -> !key.isEmpty())
+                    .collect(Collectors.toCollection(LinkedHashSet::new));
+        }
+        try (var positions = storage.getObjectsStream(Position.class, new Request(
+                new Columns.Include("latitude", "longitude", "attributes"),
+                new Condition.And(
+                        new Condition.Equals("deviceId", deviceId),
+                        new Condition.Between("fixTime", from, to))))) {
+            return positions
+                    .filter(position -> geofence == null || geofence.containsPosition(position))
+                    .flatMap(position -> position.getAttributes().keySet().stream())
+                    .collect(Collectors.toCollection(TreeSet::new));
+        }
+    }
+
     public void generate(
             OutputStream outputStream, long userId, long deviceId, long geofenceId,
             Date from, Date to) throws StorageException {
 
         var server = permissionsService.getServer();
         var user = permissionsService.getUser(userId);
-        var positions = PositionUtil.getPositions(storage, deviceId, from, to);
 
-        SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-        dateFormat.setTimeZone(UserUtil.getTimezone(server, user));
+        DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+                .withZone(UserUtil.getTimezone(server, user).toZoneId());
 
         Geofence geofence = geofenceId == 0 ? null : storage.getObject(Geofence.class, new Request(
                 new Columns.All(), new Condition.Equals("id", geofenceId)));
 
-        var attributes = positions.stream()
-                .filter(position -> geofence == null || geofence.containsPosition(position))
-                .flatMap(position -> position.getAttributes().keySet().stream())
-                .collect(Collectors.toUnmodifiableSet());
+        var attributes = getAttributes(deviceId, geofence, from, to);
 
         var properties = new LinkedHashMap<String, Function<Position, Object>>();
         properties.put("id", Position::getId);
         properties.put("deviceId", Position::getDeviceId);
         properties.put("protocol", Position::getProtocol);
-        properties.put("serverTime", position -> dateFormat.format(position.getServerTime()));
-        properties.put("deviceTime", position -> dateFormat.format(position.getDeviceTime()));
-        properties.put("fixTime", position -> dateFormat.format(position.getFixTime()));
+        properties.put("serverTime", position -> dateFormat.format(position.getServerTime().toInstant()));
+        properties.put("deviceTime", position -> dateFormat.format(position.getDeviceTime().toInstant()));
+        properties.put("fixTime", position -> dateFormat.format(position.getFixTime().toInstant()));
         properties.put("valid", Position::getValid);
         properties.put("latitude", Position::getLatitude);
         properties.put("longitude", Position::getLongitude);
@@ -82,13 +106,24 @@ public class CsvExportProvider {
         properties.put("course", Position::getCourse);
         properties.put("address", Position::getAddress);
         properties.put("accuracy", Position::getAccuracy);
-        attributes.forEach(key -> properties.put(key, position -> position.getAttributes().get(key)));
+        attributes.forEach(key -> properties.putIfAbsent(key, position -> position.getAttributes().get(key)));
+        var getters = List.copyOf(properties.values());
 
-        try (PrintWriter writer = new PrintWriter(outputStream)) {
+        try (PrintWriter writer = new PrintWriter(outputStream);
+             var positions = PositionUtil.getPositionsStream(storage, deviceId, from, to)) {
             writer.println(String.join(",", properties.keySet()));
-            positions.forEach(position -> writer.println(properties.values().stream()
-                    .map(f -> Objects.toString(f.apply(position), ""))
-                    .collect(Collectors.joining(","))));
+            positions.forEach(position -> {
+                for (int i = 0; i < getters.size(); i++) {
+                    if (i > 0) {
+                        writer.print(',');
+                    }
+                    Object value = getters.get(i).apply(position);
+                    if (value != null) {
+                        writer.print(value);
+                    }
+                }
+                writer.println();
+            });
         }
     }
 
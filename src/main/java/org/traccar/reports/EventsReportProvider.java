@@ -32,6 +32,7 @@ import org.traccar.storage.Storage;
 import org.traccar.storage.StorageException;
 import org.traccar.storage.query.Columns;
 import org.traccar.storage.query.Condition;
+import org.traccar.storage.query.Cursor;
 import org.traccar.storage.query.Order;
 import org.traccar.storage.query.Request;
 
@@ -44,6 +45,7 @@ import java.io.OutputStream;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -63,12 +65,18 @@ public class EventsReportProvider {
     }
 
     private Stream<Event> getEvents(long deviceId, Date from, Date to) throws StorageException {
+        return getEvents(deviceId, from, to, null);
+    }
+
+    private Stream<Event> getEvents(long deviceId, Date from, Date to, Cursor cursor) throws StorageException {
+        Condition condition = new Condition.And(
+                new Condition.Equals("deviceId", deviceId),
+                new Condition.Between("eventTime", from, to));
+        if (cursor != null && cursor.getDeviceId() == deviceId) {
+            condition = new Condition.And(condition, cursor.getCondition("eventTime"));
+        }
         return storage.getObjectsStream(Event.class, new Request(
-                new Columns.All(),
-                new Condition.And(
-                        new Condition.Equals("deviceId", deviceId),
-                        new Condition.Between("eventTime", from, to)),
-                new Order("eventTime")));
+                new Columns.All(), condition, new Order(List.of("eventTime", "id"), false, 0)));
     }
 
     private boolean filterType(Collection<String> types, Collection<String> alarms, Event event) {
@@ -82,13 +90,31 @@ public class EventsReportProvider {
     public Stream<Event> getObjects(
             long userId, Collection<Long> deviceIds, Collection<Long> groupIds,
             Collection<String> types, Collection<String> alarms, Date from, Date to) throws StorageException {
+        return getObjects(userId, deviceIds, groupIds, types, alarms, from, to, null);
+    }
+
+    public List<Event> getObjectsPage(
+            long userId, Collection<Long> deviceIds, Collection<Long> groupIds,
+            Collection<String> types, Collection<String> alarms, Date from, Date to,
+            Cursor cursor, int limit) throws StorageException {
+        try (var events = getObjects(userId, deviceIds, groupIds, types, alarms, from, to, cursor)) {
+            return events.limit(limit).toList();
+        }
+    }
+
+    private Stream<Event> getObjects(
+            long userId, Collection<Long> deviceIds, Collection<Long> groupIds,
+            Collection<String> types, Collection<String> alarms, Date from, Date to,
+            Cursor cursor) throws StorageException {
         reportUtils.checkPeriodLimit(from, to);
         boolean all = types.isEmpty() || types.contains(Event.ALL_EVENTS);
 
         return DeviceUtil.getAccessibleDevices(storage, userId, deviceIds, groupIds).stream()
+                .filter(device -> cursor == null || device.getId() >= cursor.getDeviceId())
+                .sorted(Comparator.comparingLong(Device::getId))
                 .flatMap(device -> {
                     try {
-                        return getEvents(device.getId(), from, to);
+                        return getEvents(device.getId(), from, to, cursor);
                     } catch (StorageException e) {
                         return Stream.of();
                     }
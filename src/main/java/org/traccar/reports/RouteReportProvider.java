@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 - 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2016 - 2025 Anton Tananaev (anton@traccar.org)
  * Copyright 2016 Andrey Kunitsyn (andrey@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
@@ -24,6 +24,7 @@ import org.traccar.helper.model.PositionUtil;
 import org.traccar.model.Device;
 import org.traccar.model.Group;
 import org.traccar.model.Position;
+import org.traccar.reports.common.ExcelStreamWriter;
 import org.traccar.reports.common.ReportUtils;
 import org.traccar.reports.model.DeviceReportSection;
 import org.traccar.storage.Storage;
@@ -82,32 +83,31 @@ public class RouteReportProvider {
             Date from, Date to) throws StorageException, IOException {
         reportUtils.checkPeriodLimit(from, to);
 
-        ArrayList<DeviceReportSection> devicesRoutes = new ArrayList<>();
-        ArrayList<String> sheetNames = new ArrayList<>();
-        for (Device device: DeviceUtil.getAccessibleDevices(storage, userId, deviceIds, groupIds)) {
-            var positions = PositionUtil.getPositions(storage, device.getId(), from, to);
-            DeviceReportSection deviceRoutes = new DeviceReportSection();
-            deviceRoutes.setDeviceName(device.getName());
-            sheetNames.add(WorkbookUtil.createSafeSheetName(getUniqueSheetName(deviceRoutes.getDeviceName())));
-            if (device.getGroupId() > 0) {
-                Group group = storage.getObject(Group.class, new Request(
-                        new Columns.All(), new Condition.Equals("id", device.getGroupId())));
-                if (group != null) {
-                    deviceRoutes.setGroupName(group.getName());
-                }
-            }
-            deviceRoutes.setObjects(positions);
-            devicesRoutes.add(deviceRoutes);
-        }
+        var context = reportUtils.initializeContext(userId);
+        context.putVar("from", from);
+        context.putVar("to", to);
 
         File file = Paths.get(config.getString(Keys.TEMPLATES_ROOT), "export", "route.xlsx").toFile();
-        try (InputStream inputStream = new FileInputStream(file)) {
-            var context = reportUtils.initializeContext(userId);
-            context.putVar("devices", devicesRoutes);
-            context.putVar("sheetNames", sheetNames);
-            context.putVar("from", from);
-            context.putVar("to", to);
-            reportUtils.processTemplateWithSheets(inputStream, outputStream, context);
+        try (InputStream inputStream = new FileInputStream(file);
+             var writer = new ExcelStreamWriter(inputStream, config.getInteger(Keys.REPORT_EXCEL_WINDOW), context)) {
+            for (Device device: DeviceUtil.getAccessibleDevices(storage, userId, deviceIds, groupIds)) {
+                DeviceReportSection deviceRoutes = new DeviceReportSection();
+                deviceRoutes.setDeviceName(device.getName());
+                if (device.getGroupId() > 0) {
+                    Group group = storage.getObject(Group.class, new Request(
+                            new Columns.All(), new Condition.Equals("id", device.getGroupId())));
+                    if (group != null) {
+                        deviceRoutes.setGroupName(group.getName());
+                    }
+                }
+                writer.startSheet(
+                        WorkbookUtil.createSafeSheetName(getUniqueSheetName(deviceRoutes.getDeviceName())),
+                        Map.of("device", deviceRoutes));
+                try (var positions = PositionUtil.getPositionsStream(storage, device.getId(), from, to)) {
+                    positions.forEach(position -> writer.addRow("position", position));
+                }
+            }
+            writer.write(outputStream);
         }
     }
 }
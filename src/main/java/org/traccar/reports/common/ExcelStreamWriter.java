@@ -0,0 +1,217 @@
+/*
+ * Copyright 2025 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.reports.common;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.jxls.common.Context;
+import org.jxls.expression.ExpressionEvaluator;
+import org.jxls.transform.poi.WritableCellValue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Renders a report template into SXSSF sheets one row at a time. The first sheet of the template is used as layout.
+ * All rows except the last one form the sheet header, the last row is repeated for every item. Cells can contain
+ * the same jxls expressions as regular templates, but area and each commands are ignored.
+ * <p>
+ * A workbook needs at least one sheet, so if no sheet was started, the template sheet is written with its header
+ * and no items.
+ */
+public class ExcelStreamWriter implements AutoCloseable {
+
+    private static final Pattern EXPRESSION_PATTERN = Pattern.compile("\\$\\{(.+?)}");
+
+    private record CellTemplate(int column, CellStyle style, Object value, ExpressionEvaluator evaluator) {
+    }
+
+    private record RowTemplate(short height, List<CellTemplate> cells) {
+    }
+
+    private final ExpressionEvaluatorFactory evaluatorFactory = new ExpressionEvaluatorFactory();
+    private final Map<String, ExpressionEvaluator> evaluators = new HashMap<>();
+
+    private final Context context;
+    private final SXSSFWorkbook workbook;
+    private final String templateName;
+
+    private final List<RowTemplate> headerRows = new ArrayList<>();
+    private final RowTemplate itemRow;
+    private final List<CellRangeAddress> mergedRegions = new ArrayList<>();
+    private final int[] columnWidths;
+
+    private Map<String, Object> variables;
+    private Sheet sheet;
+    private int rowIndex;
+
+    public ExcelStreamWriter(InputStream templateStream, int windowSize, Context context) throws IOException {
+        this.context = context;
+
+        XSSFWorkbook template = new XSSFWorkbook(templateStream);
+        Sheet templateSheet = template.getSheetAt(0);
+        templateName = templateSheet.getSheetName();
+        int lastRow = templateSheet.getLastRowNum();
+        int lastColumn = 0;
+        for (int i = 0; i < lastRow; i++) {
+            headerRows.add(compileRow(templateSheet.getRow(i)));
+        }
+        itemRow = compileRow(templateSheet.getRow(lastRow));
+        for (int i = 0; i <= lastRow; i++) {
+            Row row = templateSheet.getRow(i);
+            if (row != null) {
+                lastColumn = Math.max(lastColumn, row.getLastCellNum());
+            }
+        }
+        columnWidths = new int[lastColumn];
+        for (int i = 0; i < lastColumn; i++) {
+            columnWidths[i] = templateSheet.getColumnWidth(i);
+        }
+        for (CellRangeAddress region : templateSheet.getMergedRegions()) {
+            if (region.getLastRow() < lastRow) {
+                mergedRegions.add(region);
+            }
+        }
+        template.removeSheetAt(0);
+
+        workbook = new SXSSFWorkbook(template, windowSize);
+        workbook.setCompressTempFiles(true);
+    }
+
+    private RowTemplate compileRow(Row row) {
+        List<CellTemplate> cells = new ArrayList<>();
+        if (row == null) {
+            return new RowTemplate((short) -1, cells);
+        }
+        for (Cell cell : row) {
+            Object value = null;
+            ExpressionEvaluator evaluator = null;
+            if (cell.getCellType() == CellType.STRING) {
+                String text = cell.getStringCellValue();
+                if (text.startsWith("${") && text.endsWith("}") && text.indexOf("${", 2) < 0) {
+                    evaluator = getEvaluator(text.substring(2, text.length() - 1));
+                } else {
+                    value = text;
+                }
+            } else if (cell.getCellType() == CellType.NUMERIC) {
+                value = cell.getNumericCellValue();
+            } else if (cell.getCellType() == CellType.BOOLEAN) {
+                value = cell.getBooleanCellValue();
+            }
+            cells.add(new CellTemplate(cell.getColumnIndex(), cell.getCellStyle(), value, evaluator));
+        }
+        return new RowTemplate(row.getZeroHeight() ? 0 : row.getHeight(), cells);
+    }
+
+    private ExpressionEvaluator getEvaluator(String expression) {
+        return evaluators.computeIfAbsent(expression, evaluatorFactory::createExpressionEvaluator);
+    }
+
+    public void startSheet(String name, Map<String, Object> sheetVariables) {
+        variables = new HashMap<>(context.toMap());
+        variables.putAll(sheetVariables);
+
+        sheet = workbook.createSheet(name);
+        for (int i = 0; i < columnWidths.length; i++) {
+            sheet.setColumnWidth(i, columnWidths[i]);
+        }
+        for (CellRangeAddress region : mergedRegions) {
+            sheet.addMergedRegion(region.copy());
+        }
+        rowIndex = 0;
+        for (RowTemplate rowTemplate : headerRows) {
+            writeRow(rowTemplate);
+        }
+    }
+
+    public void addRow(String name, Object item) {
+        variables.put(name, item);
+        writeRow(itemRow);
+    }
+
+    private void writeRow(RowTemplate rowTemplate) {
+        Row row = sheet.createRow(rowIndex++);
+        if (rowTemplate.height() >= 0) {
+            row.setHeight(rowTemplate.height());
+        }
+        for (CellTemplate cellTemplate : rowTemplate.cells()) {
+            Cell cell = row.createCell(cellTemplate.column());
+            cell.setCellStyle(cellTemplate.style());
+            Object value;
+            if (cellTemplate.evaluator() != null) {
+                value = cellTemplate.evaluator().evaluate(variables);
+            } else if (cellTemplate.value() instanceof String text && text.contains("${")) {
+                value = interpolate(text);
+            } else {
+                value = cellTemplate.value();
+            }
+            setValue(cell, value);
+        }
+    }
+
+    private String interpolate(String text) {
+        Matcher matcher = EXPRESSION_PATTERN.matcher(text);
+        StringBuilder result = new StringBuilder();
+        while (matcher.find()) {
+            Object value = getEvaluator(matcher.group(1)).evaluate(variables);
+            matcher.appendReplacement(result, Matcher.quoteReplacement(value != null ? value.toString() : ""));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    private void setValue(Cell cell, Object value) {
+        if (value instanceof WritableCellValue writableValue) {
+            writableValue.writeToCell(cell, context);
+        } else if (value instanceof Number numberValue) {
+            cell.setCellValue(numberValue.doubleValue());
+        } else if (value instanceof Boolean booleanValue) {
+            cell.setCellValue(booleanValue);
+        } else if (value instanceof Date dateValue) {
+            cell.setCellValue(dateValue);
+        } else if (value != null) {
+            cell.setCellValue(value.toString());
+        }
+    }
+
+    public void write(OutputStream outputStream) throws IOException {
+        if (workbook.getNumberOfSheets() == 0) {
+            startSheet(templateName, Map.of());
+        }
+        workbook.write(outputStream);
+    }
+
+    @Override
+    public void close() throws IOException {
+        workbook.dispose();
+        workbook.close();
+    }
+
+}
@@ -17,11 +17,10 @@ package org.traccar.schedule;
 
 import com.google.inject.Injector;
 import org.traccar.LifecycleObject;
+import org.traccar.broadcast.ShardManager;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
-import org.traccar.config.Config;
-import org.traccar.config.Keys;
 
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
@@ -35,9 +34,9 @@ public class ScheduleManager implements LifecycleObject {
     private ScheduledExecutorService executor;
 
     @Inject
-    public ScheduleManager(Injector injector, Config config) {
+    public ScheduleManager(Injector injector, ShardManager shardManager) {
         this.injector = injector;
-        secondary = config.getBoolean(Keys.BROADCAST_SECONDARY);
+        secondary = !shardManager.isPrimary();
     }
 
     @Override
@@ -48,6 +47,8 @@ public class ScheduleManager implements LifecycleObject {
                 TaskClearStatus.class,
                 TaskExpirations.class,
                 TaskDeleteTemporary.class,
+                TaskPartitions.class,
+                TaskArchive.class,
                 TaskReports.class,
                 TaskDeviceInactivityCheck.class,
                 TaskWebSocketKeepalive.class)
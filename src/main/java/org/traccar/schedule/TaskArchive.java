@@ -0,0 +1,133 @@
+/*
+ * Copyright 2025 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.schedule;
+
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.traccar.broadcast.ShardManager;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.Device;
+import org.traccar.model.Position;
+import org.traccar.storage.Storage;
+import org.traccar.storage.StorageException;
+import org.traccar.storage.archive.PositionArchive;
+import org.traccar.storage.query.Columns;
+import org.traccar.storage.query.Condition;
+import org.traccar.storage.query.Order;
+import org.traccar.storage.query.Request;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves complete months of old positions from the database into the position archive. The latest position of each
+ * device always stays in the database, because it is referenced from the device record.
+ */
+public class TaskArchive extends SingleScheduleTask {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskArchive.class);
+
+    private static final long CHECK_PERIOD_HOURS = 24;
+
+    private final Config config;
+    private final Storage storage;
+    private final PositionArchive positionArchive;
+    private final ShardManager shardManager;
+
+    @Inject
+    public TaskArchive(Config config, Storage storage, PositionArchive positionArchive, ShardManager shardManager) {
+        this.config = config;
+        this.storage = storage;
+        this.positionArchive = positionArchive;
+        this.shardManager = shardManager;
+    }
+
+    @Override
+    public boolean multipleInstances() {
+        return shardManager.isEnabled();
+    }
+
+    @Override
+    public void schedule(ScheduledExecutorService executor) {
+        if (positionArchive.isEnabled() && !config.getBoolean(Keys.DATABASE_MEMORY)) {
+            executor.scheduleAtFixedRate(this, 0, CHECK_PERIOD_HOURS, TimeUnit.HOURS);
+        }
+    }
+
+    @Override
+    public void run() {
+        Instant threshold = Instant.now().minus(config.getInteger(Keys.DATABASE_ARCHIVE_DAYS), ChronoUnit.DAYS);
+        YearMonth cutoff = YearMonth.from(threshold.atZone(ZoneOffset.UTC));
+        try {
+            var columns = new Columns.Include("id", "positionId");
+            for (Device device : storage.getObjects(Device.class, new Request(columns))) {
+                if (shardManager.owns(device.getId())) {
+                    archiveDevice(device, cutoff);
+                }
+            }
+        } catch (StorageException | IOException e) {
+            LOGGER.warn("Position archiving failed", e);
+        }
+    }
+
+    private void archiveDevice(Device device, YearMonth cutoff) throws StorageException, IOException {
+        Position first = storage.getObject(Position.class, new Request(
+                new Columns.Include("fixTime"),
+                new Condition.Equals("deviceId", device.getId()),
+                new Order("fixTime", false, 1)));
+        if (first == null) {
+            return;
+        }
+        YearMonth month = YearMonth.from(first.getFixTime().toInstant().atZone(ZoneOffset.UTC));
+        for (; month.isBefore(cutoff); month = month.plusMonths(1)) {
+            // plain comparisons instead of a range keep the archive out of these queries
+            Condition condition = new Condition.And(
+                    new Condition.Equals("deviceId", device.getId()),
+                    new Condition.And(
+                            new Condition.Compare("fixTime", ">=", toDate(month)),
+                            new Condition.Compare("fixTime", "<", toDate(month.plusMonths(1)))));
+            if (device.getPositionId() > 0) {
+                condition = new Condition.And(condition, new Condition.Compare("id", "<>", device.getPositionId()));
+            }
+
+            List<Position> positions = storage.getObjects(Position.class, new Request(new Columns.All(), condition));
+            if (positions.isEmpty()) {
+                continue;
+            }
+            long maxId = positions.stream().mapToLong(Position::getId).max().orElseThrow();
+
+            positionArchive.append(device.getId(), month, positions);
+
+            storage.removeObject(Position.class, new Request(
+                    new Condition.And(condition, new Condition.Compare("id", "<=", maxId))));
+            LOGGER.info("Archived {} positions of device {} for {}", positions.size(), device.getId(), month);
+        }
+    }
+
+    private static Date toDate(YearMonth month) {
+        return Date.from(month.atDay(1).atStartOfDay(ZoneOffset.UTC).toInstant());
+    }
+
+}
@@ -17,62 +17,106 @@ package org.traccar.schedule;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.traccar.broadcast.ShardManager;
 import org.traccar.database.NotificationManager;
 import org.traccar.model.Device;
 import org.traccar.model.Event;
 import org.traccar.model.Group;
 import org.traccar.model.Position;
+import org.traccar.session.DeviceInactivityIndex;
 import org.traccar.storage.Storage;
 import org.traccar.storage.StorageException;
 import org.traccar.storage.query.Columns;
+import org.traccar.storage.query.Condition;
 import org.traccar.storage.query.Request;
 
 import jakarta.inject.Inject;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
 import java.util.stream.Collectors;
 
-public class TaskDeviceInactivityCheck extends SingleScheduleTask {
+/**
+ * Generates inactivity events from the deadlines in {@link DeviceInactivityIndex}. Only expired devices are loaded
+ * and checked. All owned devices are scanned once on startup. After that only changed devices and devices in changed
+ * groups are reloaded. Deadlines are only kept by the node owning the device, so an event is generated once even if
+ * the device reports to another node. The owner learns about such updates from the stored last update when the
+ * deadline expires.
+ */
+public class TaskDeviceInactivityCheck implements ScheduleTask {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TaskDeviceInactivityCheck.class);
 
-    public static final String ATTRIBUTE_DEVICE_INACTIVITY_START = "deviceInactivityStart";
-    public static final String ATTRIBUTE_DEVICE_INACTIVITY_PERIOD = "deviceInactivityPeriod";
+    public static final String ATTRIBUTE_DEVICE_INACTIVITY_START =
+            DeviceInactivityIndex.ATTRIBUTE_DEVICE_INACTIVITY_START;
+    public static final String ATTRIBUTE_DEVICE_INACTIVITY_PERIOD =
+            DeviceInactivityIndex.ATTRIBUTE_DEVICE_INACTIVITY_PERIOD;
     public static final String ATTRIBUTE_LAST_UPDATE = "lastUpdate";
 
-    private static final long CHECK_PERIOD_MINUTES = 15;
+    private static final long CHECK_PERIOD = DeviceInactivityIndex.TICK;
 
     private final Storage storage;
     private final NotificationManager notificationManager;
+    private final ShardManager shardManager;
+    private final DeviceInactivityIndex deviceInactivityIndex;
 
     @Inject
-    public TaskDeviceInactivityCheck(Storage storage, NotificationManager notificationManager) {
+    public TaskDeviceInactivityCheck(
+            Storage storage, NotificationManager notificationManager, ShardManager shardManager,
+            DeviceInactivityIndex deviceInactivityIndex) {
         this.storage = storage;
         this.notificationManager = notificationManager;
+        this.shardManager = shardManager;
+        this.deviceInactivityIndex = deviceInactivityIndex;
+    }
+
+    @Override
+    public boolean multipleInstances() {
+        return shardManager.isEnabled();
     }
 
     @Override
     public void schedule(ScheduledExecutorService executor) {
-        executor.scheduleAtFixedRate(this, CHECK_PERIOD_MINUTES, CHECK_PERIOD_MINUTES, TimeUnit.MINUTES);
+        executor.scheduleAtFixedRate(this, CHECK_PERIOD, CHECK_PERIOD, TimeUnit.MILLISECONDS);
     }
 
     @Override
     public void run() {
         long currentTime = System.currentTimeMillis();
-        long checkPeriod = TimeUnit.MINUTES.toMillis(CHECK_PERIOD_MINUTES);
 
         Map<Event, Position> events = new HashMap<>();
 
         try {
-            Map<Long, Group> groups = storage.getObjects(Group.class, new Request(new Columns.All()))
-                    .stream().collect(Collectors.toMap(Group::getId, group -> group));
-            for (Device device : storage.getObjects(Device.class, new Request(new Columns.All()))) {
-                if (device.getLastUpdate() != null && checkDevice(device, groups, currentTime, checkPeriod)) {
-                    Event event = new Event(Event.TYPE_DEVICE_INACTIVE, device.getId());
-                    event.set(ATTRIBUTE_LAST_UPDATE, device.getLastUpdate().getTime());
-                    events.put(event, null);
+            // taken before loading so that changes during the scan are applied on the next check
+            DeviceInactivityIndex.Changes changes = deviceInactivityIndex.takeChanges();
+            boolean rebuild = deviceInactivityIndex.needsRebuild();
+            deviceInactivityIndex.setRebuild(false);
+            try {
+                if (rebuild) {
+                    rebuild(currentTime);
+                } else if (!changes.isEmpty()) {
+                    refresh(changes, currentTime);
+                }
+            } catch (StorageException e) {
+                deviceInactivityIndex.setRebuild(rebuild);
+                deviceInactivityIndex.restoreChanges(changes);
+                throw e;
+            }
+            Map<Long, Group> groups = new HashMap<>();
+            List<DeviceInactivityIndex.Entry> entries = deviceInactivityIndex.poll(currentTime);
+            for (int i = 0; i < entries.size(); i++) {
+                try {
+                    checkEntry(entries.get(i), groups, currentTime, events);
+                } catch (StorageException e) {
+                    entries.subList(i, entries.size()).forEach(deviceInactivityIndex::schedule);
+                    throw e;
                 }
             }
         } catch (StorageException e) {
@@ -82,47 +126,107 @@ public class TaskDeviceInactivityCheck extends SingleScheduleTask {
         notificationManager.updateEvents(events);
     }
 
-    private long getAttribute(Device device, Map<Long, Group> groups, String key) {
-        long deviceValue = device.getLong(key);
-        if (deviceValue > 0) {
-            return deviceValue;
-        } else {
-            long groupId = device.getGroupId();
-            while (groupId > 0) {
-                Group group = groups.get(groupId);
-                if (group == null) {
-                    return 0;
-                }
-                long groupValue = group.getLong(key);
-                if (groupValue > 0) {
-                    return groupValue;
-                }
-                groupId = group.getGroupId();
+    private void rebuild(long currentTime) throws StorageException {
+        Map<Long, Group> groups = storage.getObjects(Group.class, new Request(new Columns.All()))
+                .stream().collect(Collectors.toMap(Group::getId, group -> group));
+        for (Device device : storage.getObjects(Device.class, new Request(new Columns.All()))) {
+            if (device.getLastUpdate() != null && shardManager.owns(device.getId())) {
+                schedule(device, groups::get, currentTime - CHECK_PERIOD);
             }
-            return 0;
         }
     }
 
-    private boolean checkDevice(Device device, Map<Long, Group> groups, long currentTime, long checkPeriod) {
-        long deviceInactivityStart = getAttribute(device, groups, ATTRIBUTE_DEVICE_INACTIVITY_START);
-        if (deviceInactivityStart > 0) {
-            long timeThreshold = device.getLastUpdate().getTime() + deviceInactivityStart;
-            if (currentTime >= timeThreshold) {
+    private void refresh(DeviceInactivityIndex.Changes changes, long currentTime) throws StorageException {
+        Map<Long, Device> devices = new HashMap<>();
+        for (long deviceId : changes.deviceIds()) {
+            Device device = storage.getObject(Device.class, new Request(
+                    new Columns.All(), new Condition.Equals("id", deviceId)));
+            if (device != null) {
+                devices.put(deviceId, device);
+            } else {
+                deviceInactivityIndex.remove(deviceId);
+            }
+        }
 
-                if (currentTime - checkPeriod < timeThreshold) {
-                    return true;
+        Set<Long> groupIds = new HashSet<>();
+        Deque<Long> pending = new ArrayDeque<>(changes.groupIds());
+        while (!pending.isEmpty()) {
+            long groupId = pending.poll();
+            if (groupIds.add(groupId)) {
+                for (Group group : storage.getObjects(Group.class, new Request(
+                        new Columns.Include("id"), new Condition.Equals("groupId", groupId)))) {
+                    pending.add(group.getId());
                 }
-
-                long deviceInactivityPeriod = getAttribute(device, groups, ATTRIBUTE_DEVICE_INACTIVITY_PERIOD);
-                if (deviceInactivityPeriod > 0) {
-                    long count = (currentTime - timeThreshold - 1) / deviceInactivityPeriod;
-                    timeThreshold += count * deviceInactivityPeriod;
-                    return currentTime - checkPeriod < timeThreshold;
+                for (Device device : storage.getObjects(Device.class, new Request(
+                        new Columns.All(), new Condition.Equals("groupId", groupId)))) {
+                    devices.put(device.getId(), device);
                 }
+            }
+        }
 
+        Map<Long, Group> groups = new HashMap<>();
+        for (Device device : devices.values()) {
+            if (shardManager.owns(device.getId())) {
+                loadGroups(device.getGroupId(), groups);
+                deviceInactivityIndex.refresh(device, groups::get, currentTime - CHECK_PERIOD);
             }
         }
-        return false;
+    }
+
+    private void schedule(Device device, LongFunction<Group> groups, long after) {
+        long lastUpdate = device.getLastUpdate().getTime();
+        long deadline = DeviceInactivityIndex.getNextThreshold(
+                lastUpdate,
+                DeviceInactivityIndex.getAttribute(device, groups, ATTRIBUTE_DEVICE_INACTIVITY_START),
+                DeviceInactivityIndex.getAttribute(device, groups, ATTRIBUTE_DEVICE_INACTIVITY_PERIOD),
+                after);
+        if (deadline > 0) {
+            deviceInactivityIndex.schedule(new DeviceInactivityIndex.Entry(device.getId(), lastUpdate, deadline));
+        }
+    }
+
+    private void checkEntry(
+            DeviceInactivityIndex.Entry entry, Map<Long, Group> groups, long currentTime,
+            Map<Event, Position> events) throws StorageException {
+
+        Device device = storage.getObject(Device.class, new Request(
+                new Columns.All(), new Condition.Equals("id", entry.deviceId())));
+        if (device == null || device.getLastUpdate() == null) {
+            return;
+        }
+
+        loadGroups(device.getGroupId(), groups);
+        LongFunction<Group> groupLookup = groups::get;
+
+        // stored time can have second precision only
+        if (device.getLastUpdate().getTime() / 1000 > entry.lastUpdate() / 1000) {
+            schedule(device, groupLookup, currentTime - CHECK_PERIOD); // updated on another node
+            return;
+        }
+
+        long lastUpdate = entry.lastUpdate();
+        long start = DeviceInactivityIndex.getAttribute(device, groupLookup, ATTRIBUTE_DEVICE_INACTIVITY_START);
+        long period = DeviceInactivityIndex.getAttribute(device, groupLookup, ATTRIBUTE_DEVICE_INACTIVITY_PERIOD);
+        long threshold = DeviceInactivityIndex.getNextThreshold(lastUpdate, start, period, entry.deadline() - 1);
+        if (threshold > 0 && threshold <= currentTime) {
+            Event event = new Event(Event.TYPE_DEVICE_INACTIVE, device.getId());
+            event.set(ATTRIBUTE_LAST_UPDATE, lastUpdate);
+            events.put(event, null);
+        }
+
+        threshold = DeviceInactivityIndex.getNextThreshold(lastUpdate, start, period, currentTime);
+        if (threshold > 0) {
+            deviceInactivityIndex.schedule(new DeviceInactivityIndex.Entry(device.getId(), lastUpdate, threshold));
+        }
+    }
+
+    private void loadGroups(long groupId, Map<Long, Group> groups) throws StorageException {
+        while (groupId > 0 && !groups.containsKey(groupId)) {
+            Group group = storage.getObject(Group.class, new Request(
+                    new Columns.All(), new Condition.Equals("id", groupId)));
+            groups.put(groupId, group);
+            groupId = group != null ? group.getGroupId() : 0;
+        }
     }
 
 }
@@ -0,0 +1,239 @@
+/*
+ * Copyright 2025 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.schedule;
+
+import com.google.inject.Injector;
+import jakarta.inject.Inject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maintains monthly partitions created by the database changelog. Creates partitions a few months ahead and drops
+ * whole partitions that are older than the configured retention. The legacy partition is never dropped.
+ */
+public class TaskPartitions extends SingleScheduleTask {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TaskPartitions.class);
+
+    private static final long CHECK_PERIOD_HOURS = 24;
+    private static final int MONTHS_AHEAD = 2;
+
+    private static final Map<String, String> TABLES = Map.of("tc_positions", "fixtime", "tc_events", "eventtime");
+
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Pattern NAME_PATTERN = Pattern.compile("p(\\d{6})$");
+    private static final Pattern BOUNDARY_PATTERN = Pattern.compile("(\\d{4})-(\\d{2})-01");
+
+    private final Config config;
+    private final Injector injector;
+
+    @Inject
+    public TaskPartitions(Config config, Injector injector) {
+        this.config = config;
+        this.injector = injector;
+    }
+
+    @Override
+    public void schedule(ScheduledExecutorService executor) {
+        if (config.getBoolean(Keys.DATABASE_PARTITION) && !config.getBoolean(Keys.DATABASE_MEMORY)) {
+            executor.scheduleAtFixedRate(this, 0, CHECK_PERIOD_HOURS, TimeUnit.HOURS);
+        }
+    }
+
+    @Override
+    public void run() {
+        try (Connection connection = injector.getInstance(DataSource.class).getConnection()) {
+            String databaseType = connection.getMetaData().getDatabaseProductName();
+            boolean postgresql = databaseType.equals("PostgreSQL");
+            if (!postgresql && !databaseType.equals("MySQL") && !databaseType.equals("MariaDB")) {
+                return;
+            }
+            YearMonth current = YearMonth.now(ZoneOffset.UTC);
+            for (var entry : TABLES.entrySet()) {
+                String table = entry.getKey();
+                Partitions partitions = postgresql
+                        ? getPostgresPartitions(connection, table) : getMysqlPartitions(connection, table);
+                if (partitions.legacyEnd == null) {
+                    continue; // table is not partitioned
+                }
+                for (int i = 0; i <= MONTHS_AHEAD; i++) {
+                    YearMonth month = current.plusMonths(i);
+                    if (!month.isBefore(partitions.legacyEnd) && !partitions.months.contains(month)) {
+                        if (postgresql) {
+                            createPostgresPartition(connection, table, entry.getValue(), month);
+                        } else {
+                            executeUpdate(connection, formatCreateMysql(table, month));
+                        }
+                    }
+                }
+                int retention = config.getInteger(Keys.DATABASE_PARTITION_RETENTION);
+                if (retention > 0) {
+                    YearMonth cutoff = current.minusMonths(retention);
+                    for (YearMonth month : partitions.months) {
+                        if (month.isBefore(cutoff)) {
+                            executeUpdate(connection, postgresql
+                                    ? formatDropPostgres(table, month) : formatDropMysql(table, month));
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            LOGGER.warn("Partition maintenance failed", e);
+        }
+    }
+
+    private static final class Partitions {
+        private YearMonth legacyEnd;
+        private final Set<YearMonth> months = new TreeSet<>();
+    }
+
+    private Partitions getPostgresPartitions(Connection connection, String table) throws SQLException {
+        Partitions result = new Partitions();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT c.relname, pg_get_expr(c.relpartbound, c.oid) FROM pg_inherits i "
+                + "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = ?::regclass")) {
+            statement.setString(1, table);
+            try (var resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    addPartition(result, resultSet.getString(1), table + "_legacy", resultSet.getString(2));
+                }
+            }
+        }
+        return result;
+    }
+
+    private Partitions getMysqlPartitions(Connection connection, String table) throws SQLException {
+        Partitions result = new Partitions();
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT partition_name, partition_description FROM information_schema.partitions "
+                + "WHERE table_schema = DATABASE() AND table_name = ? AND partition_name IS NOT NULL")) {
+            statement.setString(1, table);
+            try (var resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    addPartition(result, resultSet.getString(1), "plegacy", resultSet.getString(2));
+                }
+            }
+        }
+        return result;
+    }
+
+    private void addPartition(Partitions partitions, String name, String legacyName, String bound) {
+        if (name.equals(legacyName)) {
+            Matcher matcher = BOUNDARY_PATTERN.matcher(bound != null ? bound : "");
+            if (matcher.find()) {
+                partitions.legacyEnd = YearMonth.of(
+                        Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            }
+        } else {
+            Matcher matcher = NAME_PATTERN.matcher(name);
+            if (matcher.find()) {
+                partitions.months.add(YearMonth.parse(matcher.group(1), NAME_FORMAT));
+            }
+        }
+    }
+
+    /**
+     * Rows for the new month may already be in the default partition, for example after a long outage of this task
+     * or devices reporting future timestamps. PostgreSQL refuses to create a partition that overlaps rows in the
+     * default partition, so in that case the rows are moved into a standalone table that is then attached.
+     */
+    private void createPostgresPartition(Connection connection, String table, String timeColumn, YearMonth month) {
+        String name = table + "_p" + month.format(NAME_FORMAT);
+        String range = String.format(
+                "%s >= '%s' AND %s < '%s'", timeColumn, month.atDay(1), timeColumn, month.plusMonths(1).atDay(1));
+        boolean overlap;
+        try (Statement statement = connection.createStatement();
+             var resultSet = statement.executeQuery(
+                     "SELECT EXISTS (SELECT 1 FROM " + table + "_default WHERE " + range + ")")) {
+            overlap = resultSet.next() && resultSet.getBoolean(1);
+        } catch (SQLException e) {
+            LOGGER.warn("Partition maintenance query failed", e);
+            return;
+        }
+        String bounds = String.format(
+                "FOR VALUES FROM ('%s') TO ('%s')", month.atDay(1), month.plusMonths(1).atDay(1));
+        if (!overlap) {
+            executeUpdate(connection, String.format(
+                    "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s %s", name, table, bounds));
+            return;
+        }
+        try {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate(String.format(
+                        "CREATE TABLE %s (LIKE %s INCLUDING DEFAULTS)", name, table));
+                statement.executeUpdate(String.format(
+                        "INSERT INTO %s SELECT * FROM %s_default WHERE %s", name, table, range));
+                statement.executeUpdate(String.format(
+                        "DELETE FROM %s_default WHERE %s", table, range));
+                statement.executeUpdate(String.format(
+                        "ALTER TABLE %s ATTACH PARTITION %s %s", table, name, bounds));
+                connection.commit();
+                LOGGER.info("Partition maintenance: moved rows from default partition into {}", name);
+            } catch (SQLException e) {
+                connection.rollback();
+                LOGGER.warn("Partition maintenance failed to create {}", name, e);
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            LOGGER.warn("Partition maintenance failed to create {}", name, e);
+        }
+    }
+
+    private String formatCreateMysql(String table, YearMonth month) {
+        return String.format(
+                "ALTER TABLE %s REORGANIZE PARTITION pmax INTO ("
+                + "PARTITION p%s VALUES LESS THAN ('%s'), PARTITION pmax VALUES LESS THAN (MAXVALUE))",
+                table, month.format(NAME_FORMAT), month.plusMonths(1).atDay(1));
+    }
+
+    private String formatDropPostgres(String table, YearMonth month) {
+        return String.format("DROP TABLE IF EXISTS %s_p%s", table, month.format(NAME_FORMAT));
+    }
+
+    private String formatDropMysql(String table, YearMonth month) {
+        return String.format("ALTER TABLE %s DROP PARTITION p%s", table, month.format(NAME_FORMAT));
+    }
+
+    private void executeUpdate(Connection connection, String query) {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(query);
+            LOGGER.info("Partition maintenance: {}", query);
+        } catch (SQLException e) {
+            LOGGER.warn("Partition maintenance query failed: {}", query, e);
+        }
+    }
+
+}
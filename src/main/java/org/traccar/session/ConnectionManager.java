@@ -1,5 +1,5 @@
 /*
- * Copyright 2015 - 2024 Anton Tananaev (anton@traccar.org)
+ * Copyright 2015 - 2025 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -23,6 +23,7 @@ import org.slf4j.LoggerFactory;
 import org.traccar.Protocol;
 import org.traccar.broadcast.BroadcastInterface;
 import org.traccar.broadcast.BroadcastService;
+import org.traccar.broadcast.ShardManager;
 import org.traccar.config.Config;
 import org.traccar.config.Keys;
 import org.traccar.database.DeviceLookupService;
@@ -30,6 +31,7 @@ import org.traccar.database.NotificationManager;
 import org.traccar.model.BaseModel;
 import org.traccar.model.Device;
 import org.traccar.model.Event;
+import org.traccar.model.Group;
 import org.traccar.model.LogRecord;
 import org.traccar.model.Position;
 import org.traccar.model.User;
@@ -45,6 +47,7 @@ import jakarta.inject.Singleton;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -76,8 +79,11 @@ public class ConnectionManager implements BroadcastInterface {
     private final Timer timer;
     private final BroadcastService broadcastService;
     private final DeviceLookupService deviceLookupService;
+    private final DeviceInactivityIndex deviceInactivityIndex;
+    private final ShardManager shardManager;
 
     private final Map<Long, Set<UpdateListener>> listeners = new HashMap<>();
+    private final Set<UpdateListener> logListeners = ConcurrentHashMap.newKeySet();
     private final Map<Long, Set<Long>> userDevices = new HashMap<>();
     private final Map<Long, Set<Long>> deviceUsers = new HashMap<>();
 
@@ -87,7 +93,8 @@ public class ConnectionManager implements BroadcastInterface {
     public ConnectionManager(
             Config config, CacheManager cacheManager, Storage storage,
             NotificationManager notificationManager, Timer timer, BroadcastService broadcastService,
-            DeviceLookupService deviceLookupService) {
+            DeviceLookupService deviceLookupService, DeviceInactivityIndex deviceInactivityIndex,
+            ShardManager shardManager) {
         this.config = config;
         this.cacheManager = cacheManager;
         this.storage = storage;
@@ -95,15 +102,44 @@ public class ConnectionManager implements BroadcastInterface {
         this.timer = timer;
         this.broadcastService = broadcastService;
         this.deviceLookupService = deviceLookupService;
+        this.deviceInactivityIndex = deviceInactivityIndex;
+        this.shardManager = shardManager;
         deviceTimeout = config.getLong(Keys.STATUS_TIMEOUT);
         showUnknownDevices = config.getBoolean(Keys.WEB_SHOW_UNKNOWN_DEVICES);
         broadcastService.registerListener(this);
+        broadcastService.registerInterest(this::getInterestedDevices);
+    }
+
+    /**
+     * Devices that have local subscribers or a local session.
+     */
+    private synchronized Collection<Long> getInterestedDevices() {
+        Set<Long> result = new HashSet<>(deviceUsers.keySet());
+        result.addAll(sessionsByDeviceId.keySet());
+        return result;
+    }
+
+    private synchronized void updateInterest(long deviceId) {
+        broadcastService.updateInterest(
+                deviceId, deviceUsers.containsKey(deviceId) || sessionsByDeviceId.containsKey(deviceId));
     }
 
     public DeviceSession getDeviceSession(long deviceId) {
         return sessionsByDeviceId.get(deviceId);
     }
 
+    /**
+     * Returns any session of the endpoint without locking, so it can be used for every network message.
+     */
+    public DeviceSession getDeviceSession(ConnectionKey connectionKey) {
+        Map<String, DeviceSession> endpointSessions = sessionsByEndpoint.get(connectionKey);
+        if (endpointSessions != null) {
+            var iterator = endpointSessions.values().iterator();
+            return iterator.hasNext() ? iterator.next() : null;
+        }
+        return null;
+    }
+
     public DeviceSession getDeviceSession(
             Protocol protocol, Channel channel, SocketAddress remoteAddress,
             String... uniqueIds) throws Exception {
@@ -154,6 +190,7 @@ public class ConnectionManager implements BroadcastInterface {
             sessionsByDeviceId.put(device.getId(), deviceSession);
 
             if (oldSession == null) {
+                updateInterest(device.getId());
                 cacheManager.addDevice(device.getId(), connectionKey);
             }
 
@@ -179,6 +216,7 @@ public class ConnectionManager implements BroadcastInterface {
 
         try {
             device.setId(storage.addObject(device, new Request(new Columns.Exclude("id"))));
+            deviceLookupService.addDevice(device);
             LOGGER.info("Automatically registered " + uniqueId);
             return device;
         } catch (StorageException e) {
@@ -198,6 +236,7 @@ public class ConnectionManager implements BroadcastInterface {
                         updateDevice(deviceSession.getDeviceId(), Device.STATUS_OFFLINE, null);
                     }
                     sessionsByDeviceId.remove(deviceSession.getDeviceId());
+                    updateInterest(deviceSession.getDeviceId());
                     cacheManager.removeDevice(deviceSession.getDeviceId(), connectionKey);
                 }
             }
@@ -213,6 +252,7 @@ public class ConnectionManager implements BroadcastInterface {
     private void removeDeviceSession(long deviceId) {
         DeviceSession deviceSession = sessionsByDeviceId.remove(deviceId);
         if (deviceSession != null) {
+            updateInterest(deviceId);
             ConnectionKey connectionKey = deviceSession.getConnectionKey();
             cacheManager.removeDevice(deviceId, connectionKey);
             sessionsByEndpoint.computeIfPresent(connectionKey, (e, sessions) -> {
@@ -253,6 +293,9 @@ public class ConnectionManager implements BroadcastInterface {
 
         if (time != null) {
             device.setLastUpdate(time);
+            if (shardManager.owns(deviceId)) {
+                deviceInactivityIndex.update(device, groupId -> cacheManager.getObject(Group.class, groupId));
+            }
         }
 
         Timeout timeout = timeouts.remove(deviceId);
@@ -337,10 +380,26 @@ public class ConnectionManager implements BroadcastInterface {
             if (listeners.containsKey(id1)) {
                 userDevices.get(id1).add(id2);
                 deviceUsers.put(id2, new HashSet<>(List.of(id1)));
+                updateInterest(id2);
             }
         }
     }
 
+    /**
+     * Checked before creating log records, so network logging costs nothing while no live log is open.
+     */
+    public boolean hasLogListeners() {
+        return !logListeners.isEmpty();
+    }
+
+    public void updateLogListener(UpdateListener listener, boolean enabled) {
+        if (enabled) {
+            logListeners.add(listener);
+        } else {
+            logListeners.remove(listener);
+        }
+    }
+
     public synchronized void updateLog(LogRecord record) {
         var sessions = sessionsByEndpoint.getOrDefault(record.getConnectionKey(), Map.of());
         if (sessions.isEmpty()) {
@@ -381,20 +440,25 @@ public class ConnectionManager implements BroadcastInterface {
                     new Columns.Include("id"), new Condition.Permission(User.class, userId, Device.class)));
             userDevices.put(userId, devices.stream().map(BaseModel::getId).collect(Collectors.toSet()));
             devices.forEach(device -> deviceUsers.computeIfAbsent(device.getId(), id -> new HashSet<>()).add(userId));
+            devices.forEach(device -> updateInterest(device.getId()));
         }
         set.add(listener);
     }
 
     public synchronized void removeListener(long userId, UpdateListener listener) {
+        logListeners.remove(listener);
         var set = listeners.get(userId);
         set.remove(listener);
         if (set.isEmpty()) {
             listeners.remove(userId);
 
-            userDevices.remove(userId).forEach(deviceId -> deviceUsers.computeIfPresent(deviceId, (x, userIds) -> {
-                userIds.remove(userId);
-                return userIds.isEmpty() ? null : userIds;
-            }));
+            userDevices.remove(userId).forEach(deviceId -> {
+                deviceUsers.computeIfPresent(deviceId, (x, userIds) -> {
+                    userIds.remove(userId);
+                    return userIds.isEmpty() ? null : userIds;
+                });
+                updateInterest(deviceId);
+            });
         }
     }
 
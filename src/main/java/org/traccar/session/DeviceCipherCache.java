@@ -0,0 +1,106 @@
+/*
+ * Copyright 2025 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.session;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.traccar.broadcast.BroadcastInterface;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.BaseModel;
+import org.traccar.model.Device;
+import org.traccar.model.Group;
+import org.traccar.model.ObjectOperation;
+import org.traccar.session.cache.CacheManager;
+
+import javax.crypto.Cipher;
+import java.security.GeneralSecurityException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least recently used cache of initialized per-device ciphers. A cipher is reset to its initial state after each
+ * {@code doFinal} call, so cached instances can be reused without repeating key setup. Cipher objects are not thread
+ * safe, callers have to synchronize on the returned instance.
+ * <p>
+ * Keys usually come from device or group attributes, so any change to those objects drops the affected entries.
+ */
+@Singleton
+public class DeviceCipherCache implements BroadcastInterface {
+
+    public interface CipherFactory {
+        Cipher createCipher() throws GeneralSecurityException;
+    }
+
+    private final Map<Long, Cipher> ciphers;
+    private long generation;
+
+    @Inject
+    public DeviceCipherCache(Config config) {
+        int size = config.getInteger(Keys.PROTOCOL_CIPHER_CACHE_SIZE);
+        ciphers = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Cipher> eldest) {
+                return size() > size;
+            }
+        };
+    }
+
+    @Inject
+    public void setCacheManager(CacheManager cacheManager) {
+        cacheManager.registerListener(this);
+    }
+
+    public Cipher getCipher(long deviceId, CipherFactory factory) throws GeneralSecurityException {
+        long currentGeneration;
+        synchronized (ciphers) {
+            Cipher cipher = ciphers.get(deviceId);
+            if (cipher != null) {
+                return cipher;
+            }
+            currentGeneration = generation;
+        }
+        Cipher cipher = factory.createCipher();
+        synchronized (ciphers) {
+            if (currentGeneration != generation) {
+                return cipher; // key may have changed while the cipher was created
+            }
+            Cipher existing = ciphers.putIfAbsent(deviceId, cipher);
+            return existing != null ? existing : cipher;
+        }
+    }
+
+    public int size() {
+        synchronized (ciphers) {
+            return ciphers.size();
+        }
+    }
+
+    @Override
+    public <T extends BaseModel> void invalidateObject(
+            boolean local, Class<T> clazz, long id, ObjectOperation operation) {
+        synchronized (ciphers) {
+            if (clazz.equals(Device.class)) {
+                ciphers.remove(id);
+                generation += 1;
+            } else if (clazz.equals(Group.class)) {
+                ciphers.clear();
+                generation += 1;
+            }
+        }
+    }
+
+}
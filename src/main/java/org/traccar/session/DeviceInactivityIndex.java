@@ -0,0 +1,252 @@
+/*
+ * Copyright 2025 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.session;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.traccar.broadcast.BroadcastInterface;
+import org.traccar.model.BaseModel;
+import org.traccar.model.Device;
+import org.traccar.model.Group;
+import org.traccar.model.ObjectOperation;
+import org.traccar.session.cache.CacheManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongFunction;
+
+/**
+ * Deadlines of device inactivity events, kept in a hashed timing wheel. Each slot covers one tick, and deadlines
+ * further away than one rotation stay in their slot until a later pass. Polling only visits the slots of ticks
+ * elapsed since the previous poll.
+ * <p>
+ * The index is filled from all devices once on startup and then incrementally from device status updates. Device
+ * and group changes can affect inactivity settings, so the changed ids are collected and only the affected devices
+ * are recalculated.
+ */
+@Singleton
+public class DeviceInactivityIndex implements BroadcastInterface {
+
+    public static final String ATTRIBUTE_DEVICE_INACTIVITY_START = "deviceInactivityStart";
+    public static final String ATTRIBUTE_DEVICE_INACTIVITY_PERIOD = "deviceInactivityPeriod";
+
+    public static final long TICK = 60_000;
+    private static final int WHEEL_SIZE = 1024;
+
+    public record Entry(long deviceId, long lastUpdate, long deadline) {
+    }
+
+    public record Changes(Set<Long> deviceIds, Set<Long> groupIds) {
+        public boolean isEmpty() {
+            return deviceIds.isEmpty() && groupIds.isEmpty();
+        }
+    }
+
+    private final List<Map<Long, Entry>> wheel = new ArrayList<>(WHEEL_SIZE);
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private long currentTick = System.currentTimeMillis() / TICK;
+
+    private volatile boolean rebuild = true;
+    private Set<Long> changedDevices = new HashSet<>();
+    private Set<Long> changedGroups = new HashSet<>();
+
+    public DeviceInactivityIndex() {
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel.add(new HashMap<>());
+        }
+    }
+
+    @Inject
+    public void setCacheManager(CacheManager cacheManager) {
+        cacheManager.registerListener(this);
+    }
+
+    public static long getAttribute(Device device, LongFunction<Group> groups, String key) {
+        long deviceValue = device.getLong(key);
+        if (deviceValue > 0) {
+            return deviceValue;
+        } else {
+            long groupId = device.getGroupId();
+            while (groupId > 0) {
+                Group group = groups.apply(groupId);
+                if (group == null) {
+                    return 0;
+                }
+                long groupValue = group.getLong(key);
+                if (groupValue > 0) {
+                    return groupValue;
+                }
+                groupId = group.getGroupId();
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Returns the first inactivity threshold after the given time or zero if there is none.
+     */
+    public static long getNextThreshold(long lastUpdate, long start, long period, long after) {
+        if (start <= 0) {
+            return 0;
+        }
+        long threshold = lastUpdate + start;
+        if (threshold > after) {
+            return threshold;
+        }
+        if (period <= 0) {
+            return 0;
+        }
+        return threshold + ((after - threshold) / period + 1) * period;
+    }
+
+    /**
+     * Schedules the first threshold for the current last update of the device.
+     */
+    public void update(Device device, LongFunction<Group> groups) {
+        if (device.getLastUpdate() == null) {
+            return;
+        }
+        long lastUpdate = device.getLastUpdate().getTime();
+        long start = getAttribute(device, groups, ATTRIBUTE_DEVICE_INACTIVITY_START);
+        long deadline = getNextThreshold(lastUpdate, start, 0, lastUpdate);
+        if (deadline > 0) {
+            schedule(new Entry(device.getId(), lastUpdate, deadline));
+        } else {
+            remove(device.getId());
+        }
+    }
+
+    /**
+     * Recalculates the deadline of the device after a settings change. The most recent known last update is kept, so
+     * a stored value with lower precision or from before a concurrent update does not move the deadline back.
+     */
+    public synchronized void refresh(Device device, LongFunction<Group> groups, long after) {
+        long lastUpdate = device.getLastUpdate() != null ? device.getLastUpdate().getTime() : 0;
+        Integer slot = slots.get(device.getId());
+        if (slot != null) {
+            lastUpdate = Math.max(lastUpdate, wheel.get(slot).get(device.getId()).lastUpdate);
+        }
+        long deadline = 0;
+        if (lastUpdate > 0) {
+            deadline = getNextThreshold(
+                    lastUpdate,
+                    getAttribute(device, groups, ATTRIBUTE_DEVICE_INACTIVITY_START),
+                    getAttribute(device, groups, ATTRIBUTE_DEVICE_INACTIVITY_PERIOD),
+                    after);
+        }
+        if (deadline > 0) {
+            schedule(new Entry(device.getId(), lastUpdate, deadline));
+        } else {
+            remove(device.getId());
+        }
+    }
+
+    private static int getSlot(long tick) {
+        return (int) (tick % WHEEL_SIZE);
+    }
+
+    /**
+     * Adds or replaces the entry of the device. Entries based on an older last update never replace newer ones.
+     */
+    public synchronized void schedule(Entry entry) {
+        Integer previous = slots.get(entry.deviceId);
+        if (previous != null && wheel.get(previous).get(entry.deviceId).lastUpdate > entry.lastUpdate) {
+            return;
+        }
+        remove(entry.deviceId);
+        int slot = getSlot(Math.max(entry.deadline / TICK, currentTick));
+        wheel.get(slot).put(entry.deviceId, entry);
+        slots.put(entry.deviceId, slot);
+    }
+
+    public synchronized void remove(long deviceId) {
+        Integer slot = slots.remove(deviceId);
+        if (slot != null) {
+            wheel.get(slot).remove(deviceId);
+        }
+    }
+
+    /**
+     * Removes and returns all entries with deadlines up to the given time.
+     */
+    public synchronized List<Entry> poll(long time) {
+        List<Entry> result = new ArrayList<>();
+        long tick = time / TICK;
+        long ticks = Math.min(tick - currentTick + 1, WHEEL_SIZE); // current slot can hold later deadlines
+        for (long i = 0; i < ticks; i++) {
+            Iterator<Entry> iterator = wheel.get(getSlot(tick - i)).values().iterator();
+            while (iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (entry.deadline <= time) {
+                    iterator.remove();
+                    slots.remove(entry.deviceId);
+                    result.add(entry);
+                }
+            }
+        }
+        currentTick = Math.max(currentTick, tick);
+        return result;
+    }
+
+    public synchronized int size() {
+        return slots.size();
+    }
+
+    public boolean needsRebuild() {
+        return rebuild;
+    }
+
+    public void setRebuild(boolean rebuild) {
+        this.rebuild = rebuild;
+    }
+
+    /**
+     * Returns and clears the devices and groups changed since the previous call.
+     */
+    public synchronized Changes takeChanges() {
+        Changes changes = new Changes(changedDevices, changedGroups);
+        changedDevices = new HashSet<>();
+        changedGroups = new HashSet<>();
+        return changes;
+    }
+
+    /**
+     * Returns changes that could not be applied, so they are retried on the next check.
+     */
+    public synchronized void restoreChanges(Changes changes) {
+        changedDevices.addAll(changes.deviceIds);
+        changedGroups.addAll(changes.groupIds);
+    }
+
+    @Override
+    public synchronized <T extends BaseModel> void invalidateObject(
+            boolean local, Class<T> clazz, long id, ObjectOperation operation) {
+        if (clazz.equals(Device.class) && operation == ObjectOperation.DELETE) {
+            remove(id);
+            changedDevices.remove(id);
+        } else if (clazz.equals(Device.class)) {
+            changedDevices.add(id);
+        } else if (clazz.equals(Group.class)) {
+            changedGroups.add(id);
+        }
+    }
+
+}
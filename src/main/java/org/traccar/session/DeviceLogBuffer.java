@@ -0,0 +1,122 @@
+/*
+ * Copyright 2025 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.session;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.traccar.broadcast.BroadcastInterface;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.BaseModel;
+import org.traccar.model.Device;
+import org.traccar.model.LogRecord;
+import org.traccar.model.ObjectOperation;
+import org.traccar.session.cache.CacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the most recent raw messages of every device in a fixed size ring. Records store unformatted bytes, so
+ * buffering costs a copy of the message and formatting only happens when the buffer is read.
+ * <p>
+ * Also holds per-device message counters for log sampling. State of a device is dropped when it is deleted.
+ */
+@Singleton
+public class DeviceLogBuffer implements BroadcastInterface {
+
+    private final int capacity;
+    private final Map<Long, Ring> rings = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    private static final class Ring {
+        private final LogRecord[] records;
+        private int next;
+        private int size;
+
+        Ring(int capacity) {
+            records = new LogRecord[capacity];
+        }
+    }
+
+    @Inject
+    public DeviceLogBuffer(Config config) {
+        capacity = config.getInteger(Keys.LOGGER_DEVICE_BUFFER);
+    }
+
+    @Inject
+    public void setCacheManager(CacheManager cacheManager) {
+        cacheManager.registerListener(this);
+    }
+
+    public boolean isEnabled() {
+        return capacity > 0;
+    }
+
+    public void add(long deviceId, LogRecord record) {
+        Ring ring = rings.computeIfAbsent(deviceId, key -> new Ring(capacity));
+        synchronized (ring) {
+            ring.records[ring.next] = record;
+            ring.next = (ring.next + 1) % capacity;
+            ring.size = Math.min(ring.size + 1, capacity);
+        }
+    }
+
+    /**
+     * Returns buffered records from oldest to newest.
+     */
+    public List<LogRecord> get(long deviceId) {
+        Ring ring = rings.get(deviceId);
+        if (ring == null) {
+            return List.of();
+        }
+        synchronized (ring) {
+            List<LogRecord> result = new ArrayList<>(ring.size);
+            for (int i = ring.size; i > 0; i--) {
+                result.add(ring.records[(ring.next - i + capacity) % capacity]);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Returns true for every n-th message of the device, where n is the sampling interval.
+     */
+    public boolean sample(long deviceId, int sampling) {
+        if (sampling <= 1) {
+            return true;
+        }
+        AtomicLong counter = counters.computeIfAbsent(deviceId, key -> new AtomicLong());
+        return counter.getAndIncrement() % sampling == 0;
+    }
+
+    public void remove(long deviceId) {
+        rings.remove(deviceId);
+        counters.remove(deviceId);
+    }
+
+    @Override
+    public <T extends BaseModel> void invalidateObject(
+            boolean local, Class<T> clazz, long id, ObjectOperation operation) {
+        if (clazz.equals(Device.class) && operation == ObjectOperation.DELETE) {
+            remove(id);
+        }
+    }
+
+}
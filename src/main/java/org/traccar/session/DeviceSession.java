@@ -1,5 +1,5 @@
 /*
- * Copyright 2016 - 2024 Anton Tananaev (anton@traccar.org)
+ * Copyright 2016 - 2025 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -74,6 +74,7 @@ public class DeviceSession {
     }
 
     public static final String KEY_TIMEZONE = "timezone";
+    public static final String KEY_LOG_SAMPLING = "logSampling";
 
     private final Map<String, Object> locals = new HashMap<>();
 
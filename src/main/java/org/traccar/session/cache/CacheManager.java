@@ -62,6 +62,7 @@ public class CacheManager implements BroadcastInterface {
     private final Config config;
     private final Storage storage;
     private final BroadcastService broadcastService;
+    private final Set<BroadcastInterface> listeners = ConcurrentHashMap.newKeySet();
 
     private final CacheGraph graph = new CacheGraph();
 
@@ -87,6 +88,14 @@ public class CacheManager implements BroadcastInterface {
         return config;
     }
 
+    /**
+     * Registers a listener for local and remote object invalidations. Listeners are called after the cache itself is
+     * updated.
+     */
+    public void registerListener(BroadcastInterface listener) {
+        listeners.add(listener);
+    }
+
     public <T extends BaseModel> T getObject(Class<T> clazz, long id) {
         return graph.getObject(clazz, id);
     }
@@ -164,6 +173,18 @@ public class CacheManager implements BroadcastInterface {
             broadcastService.invalidateObject(true, clazz, id, operation);
         }
 
+        try {
+            invalidateGraph(clazz, id, operation);
+        } finally {
+            for (BroadcastInterface listener : listeners) {
+                listener.invalidateObject(local, clazz, id, operation);
+            }
+        }
+    }
+
+    private <T extends BaseModel> void invalidateGraph(
+            Class<T> clazz, long id, ObjectOperation operation) throws Exception {
+
         synchronized (this) {
             if (operation == ObjectOperation.DELETE) {
                 graph.removeObject(clazz, id);
@@ -97,6 +97,7 @@ public class DatabaseModule extends AbstractModule {
 
                 try (Liquibase liquibase = new Liquibase(changelog, resourceAccessor, database)) {
                     liquibase.clearCheckSums();
+                    liquibase.setChangeLogParameter("partition", config.getBoolean(Keys.DATABASE_PARTITION));
                     liquibase.update(new Contexts());
                 }
             } catch (LockException e) {
@@ -22,6 +22,8 @@ import org.traccar.model.Device;
 import org.traccar.model.Group;
 import org.traccar.model.GroupedModel;
 import org.traccar.model.Permission;
+import org.traccar.model.Position;
+import org.traccar.storage.archive.PositionArchive;
 import org.traccar.storage.query.Columns;
 import org.traccar.storage.query.Condition;
 import org.traccar.storage.query.Order;
@@ -29,6 +31,7 @@ import org.traccar.storage.query.Request;
 
 import jakarta.inject.Inject;
 import javax.sql.DataSource;
+import java.io.IOException;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.LinkedList;
@@ -42,13 +45,16 @@ public class DatabaseStorage extends Storage {
     private final Config config;
     private final DataSource dataSource;
     private final ObjectMapper objectMapper;
+    private final PositionArchive positionArchive;
     private final String databaseType;
 
     @Inject
-    public DatabaseStorage(Config config, DataSource dataSource, ObjectMapper objectMapper) {
+    public DatabaseStorage(
+            Config config, DataSource dataSource, ObjectMapper objectMapper, PositionArchive positionArchive) {
         this.config = config;
         this.dataSource = dataSource;
         this.objectMapper = objectMapper;
+        this.positionArchive = positionArchive;
 
         try (var connection = dataSource.getConnection()) {
             databaseType = connection.getMetaData().getDatabaseProductName();
@@ -59,13 +65,26 @@ public class DatabaseStorage extends Storage {
 
     @Override
     public <T> List<T> getObjects(Class<T> clazz, Request request) throws StorageException {
-        try (var objects = getObjectsStream(clazz, request)) {
+        try (var objects = getObjectsStream(clazz, request, false)) {
             return objects.toList();
         }
     }
 
+    @Override
+    public <T> T getObject(Class<T> clazz, Request request) throws StorageException {
+        try (var objects = getObjectsStream(clazz, request, false)) {
+            return objects.findFirst().orElse(null);
+        }
+    }
+
     @Override
     public <T> Stream<T> getObjectsStream(Class<T> clazz, Request request) throws StorageException {
+        return getObjectsStream(clazz, request, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Stream<T> getObjectsStream(
+            Class<T> clazz, Request request, boolean streamed) throws StorageException {
         StringBuilder query = new StringBuilder("SELECT ");
         if (request.getColumns() instanceof Columns.All) {
             query.append('*');
@@ -81,7 +100,11 @@ public class DatabaseStorage extends Storage {
             for (int index = 0; index < values.size(); index++) {
                 builder.setValue(index, values.get(index));
             }
-            return builder.executeQueryStreamed(clazz);
+            Stream<T> result = builder.executeQueryStreamed(clazz, streamed);
+            if (clazz.equals(Position.class) && positionArchive.isEnabled()) {
+                return (Stream<T>) positionArchive.merge(request, (Stream<Position>) result);
+            }
+            return result;
         } catch (SQLException e) {
             throw new StorageException(e);
         }
@@ -106,6 +129,32 @@ public class DatabaseStorage extends Storage {
         }
     }
 
+    @Override
+    public <T> long[] addObjects(List<T> entities, Request request) throws StorageException {
+        if (entities.size() <= 1 || databaseType.equals("Microsoft SQL Server")) {
+            return super.addObjects(entities, request); // no generated keys for batches
+        }
+        Class<?> clazz = entities.get(0).getClass();
+        List<String> columns = request.getColumns().getColumns(clazz, "get");
+        StringBuilder query = new StringBuilder("INSERT INTO ");
+        query.append(getStorageName(clazz));
+        query.append("(");
+        query.append(formatColumns(columns, c -> c));
+        query.append(") VALUES (");
+        query.append(formatColumns(columns, c -> "?"));
+        query.append(")");
+        try {
+            QueryBuilder builder = QueryBuilder.create(config, dataSource, objectMapper, query.toString(), true);
+            for (T entity : entities) {
+                builder.setObject(entity, columns);
+                builder.addBatch();
+            }
+            return builder.executeBatch(entities.size());
+        } catch (SQLException e) {
+            throw new StorageException(e);
+        }
+    }
+
     @Override
     public <T> void updateObject(T entity, Request request) throws StorageException {
         List<String> columns = request.getColumns().getColumns(entity.getClass(), "get");
@@ -142,6 +191,22 @@ public class DatabaseStorage extends Storage {
         } catch (SQLException e) {
             throw new StorageException(e);
         }
+        if (positionArchive.isEnabled()) {
+            removeArchived(clazz, request);
+        }
+    }
+
+    private void removeArchived(Class<?> clazz, Request request) throws StorageException {
+        if (clazz.equals(Position.class)) {
+            positionArchive.remove(request);
+        } else if (clazz.equals(Device.class) && request.getCondition() instanceof Condition.Equals equals
+                && equals.getColumn().equals("id") && equals.getValue() instanceof Number deviceId) {
+            try {
+                positionArchive.removeDevice(deviceId.longValue());
+            } catch (IOException e) {
+                throw new StorageException(e);
+            }
+        }
     }
 
     @Override
@@ -305,10 +370,8 @@ public class DatabaseStorage extends Storage {
         StringBuilder result = new StringBuilder();
         if (order != null) {
             result.append(" ORDER BY ");
-            result.append(order.getColumn());
-            if (order.getDescending()) {
-                result.append(" DESC");
-            }
+            String direction = order.getDescending() ? " DESC" : "";
+            result.append(order.getColumns().stream().map(c -> c + direction).collect(Collectors.joining(", ")));
             if (order.getLimit() > 0) {
                 if (databaseType.equals("Microsoft SQL Server")) {
                     result.append(" OFFSET 0 ROWS FETCH FIRST ");
@@ -21,10 +21,12 @@ import org.traccar.model.Pair;
 import org.traccar.model.Permission;
 import org.traccar.model.Server;
 import org.traccar.storage.query.Condition;
+import org.traccar.storage.query.Order;
 import org.traccar.storage.query.Request;
 
 import java.lang.reflect.Method;
 import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -56,9 +58,21 @@ public class MemoryStorage extends Storage {
 
     @Override
     public <T> Stream<T> getObjectsStream(Class<T> clazz, Request request) {
-        return objects.computeIfAbsent(clazz, key -> new HashMap<>()).values().stream()
-                .filter(object -> checkCondition(request.getCondition(), object))
-                .map(object -> (T) object);
+        Stream<Object> result = objects.computeIfAbsent(clazz, key -> new HashMap<>()).values().stream()
+                .filter(object -> checkCondition(request.getCondition(), object));
+        Order order = request.getOrder();
+        if (order != null) {
+            Comparator<Object> comparator = null;
+            for (String column : order.getColumns()) {
+                Comparator<Object> next = Comparator.comparing(object -> (Comparable) retrieveValue(object, column));
+                comparator = comparator != null ? comparator.thenComparing(next) : next;
+            }
+            result = result.sorted(order.getDescending() ? comparator.reversed() : comparator);
+            if (order.getLimit() > 0) {
+                result = result.limit(order.getLimit());
+            }
+        }
+        return result.map(object -> (T) object);
     }
 
     private boolean checkCondition(Condition genericCondition, Object object) {
@@ -58,6 +58,7 @@ public final class QueryBuilder {
     private PreparedStatement statement;
     private final String query;
     private final boolean returnGeneratedKeys;
+    private boolean autoCommitDisabled;
 
     private QueryBuilder(
             Config config, DataSource dataSource, ObjectMapper objectMapper,
@@ -253,12 +254,20 @@ public final class QueryBuilder {
     }
 
     public <T> List<T> executeQuery(Class<T> clazz) throws SQLException {
-        try (var stream = executeQueryStreamed(clazz)) {
+        try (var stream = executeQueryStreamed(clazz, false)) {
             return stream.toList();
         }
     }
 
     public <T> Stream<T> executeQueryStreamed(Class<T> clazz) throws SQLException {
+        return executeQueryStreamed(clazz, true);
+    }
+
+    /**
+     * Returns rows as they are read. With {@code chunked} and a configured fetch size the driver reads them in chunks,
+     * which on PostgreSQL requires a transaction; it is committed and autocommit is restored when the stream closes.
+     */
+    public <T> Stream<T> executeQueryStreamed(Class<T> clazz, boolean chunked) throws SQLException {
         if (query == null) {
             return Stream.empty();
         }
@@ -266,6 +275,15 @@ public final class QueryBuilder {
         try {
             logQuery();
 
+            int fetchSize = chunked ? config.getInteger(Keys.DATABASE_FETCH_SIZE) : 0;
+            if (fetchSize != 0) {
+                if (fetchSize > 0 && connection.getAutoCommit()) {
+                    connection.setAutoCommit(false);
+                    autoCommitDisabled = true;
+                }
+                statement.setFetchSize(fetchSize);
+            }
+
             resultSet = statement.executeQuery();
             ResultSetMetaData resultMetaData = resultSet.getMetaData();
 
@@ -319,11 +337,21 @@ public final class QueryBuilder {
 
     private void close(ResultSet resultSet) {
         try {
-            if (resultSet != null) {
-                resultSet.close();
+            try {
+                if (resultSet != null) {
+                    resultSet.close();
+                }
+                statement.close();
+                if (autoCommitDisabled) {
+                    try {
+                        connection.commit();
+                    } finally {
+                        connection.setAutoCommit(true);
+                    }
+                }
+            } finally {
+                connection.close();
             }
-            statement.close();
-            connection.close();
         } catch (SQLException e) {
             throw new RuntimeException(e);
         }
@@ -349,6 +377,37 @@ public final class QueryBuilder {
         return 0;
     }
 
+    public QueryBuilder addBatch() throws SQLException {
+        return setValue(() -> statement.addBatch());
+    }
+
+    public long[] executeBatch(int size) throws SQLException {
+        long[] result = new long[size];
+        if (query != null) {
+            try {
+                logQuery();
+                statement.executeBatch();
+                if (returnGeneratedKeys) {
+                    int count = 0;
+                    try (ResultSet resultSet = statement.getGeneratedKeys()) {
+                        while (count < size && resultSet.next()) {
+                            result[count++] = resultSet.getLong(1);
+                        }
+                    }
+                    if (count < size) {
+                        // rows are already inserted, so retrying them one by one would duplicate them
+                        throw new SQLException(
+                                "Batch insert returned " + count + " generated keys for " + size + " rows");
+                    }
+                }
+            } finally {
+                statement.close();
+                connection.close();
+            }
+        }
+        return result;
+    }
+
     public List<Permission> executePermissionsQuery() throws SQLException {
         List<Permission> result = new LinkedList<>();
         if (query != null) {
@@ -30,6 +30,17 @@ public abstract class Storage {
 
     public abstract <T> long addObject(T entity, Request request) throws StorageException;
 
+    /**
+     * Adds multiple objects of the same class and returns their ids in the same order.
+     */
+    public <T> long[] addObjects(List<T> entities, Request request) throws StorageException {
+        long[] result = new long[entities.size()];
+        for (int index = 0; index < entities.size(); index++) {
+            result[index] = addObject(entities.get(index), request);
+        }
+        return result;
+    }
+
     public abstract <T> void updateObject(T entity, Request request) throws StorageException;
 
     public abstract void removeObject(Class<?> clazz, Request request) throws StorageException;
@@ -0,0 +1,581 @@
+/*
+ * Copyright 2025 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.storage.archive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.helper.ReflectionCache;
+import org.traccar.model.Position;
+import org.traccar.storage.StorageException;
+import org.traccar.storage.query.Condition;
+import org.traccar.storage.query.Order;
+import org.traccar.storage.query.Request;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stores cold position history outside of the database. Positions are kept in one compressed columnar segment per
+ * device and month at {@code <path>/<deviceId>/<yyyyMM>.seg}, so the directory listing acts as a per-device time
+ * index and a range query only opens segments that overlap the requested period. A small {@code index} file next to
+ * the segments records the id range of each month, so lookups and removals by position id only open segments whose
+ * range contains the id.
+ */
+@Singleton
+public class PositionArchive {
+
+    private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final String EXTENSION = ".seg";
+    private static final String INDEX = "index";
+    private static final long RELOAD_INTERVAL = 60_000;
+
+    private static final Comparator<Position> ORDER = Comparator
+            .comparing(Position::getFixTime)
+            .thenComparingLong(Position::getId);
+
+    private final Path root;
+    private final ObjectMapper objectMapper;
+
+    private record Range(long minId, long maxId) {
+    }
+
+    private final Map<Long, NavigableMap<YearMonth, Range>> ranges = new ConcurrentHashMap<>();
+    private volatile long rangesTime;
+
+    @Inject
+    public PositionArchive(Config config, ObjectMapper objectMapper) {
+        String path = config.getString(Keys.DATABASE_ARCHIVE_PATH);
+        this.root = path != null ? Paths.get(path) : null;
+        this.objectMapper = objectMapper;
+    }
+
+    public boolean isEnabled() {
+        return root != null;
+    }
+
+    public NavigableSet<YearMonth> getMonths(long deviceId) throws IOException {
+        NavigableSet<YearMonth> result = new TreeSet<>();
+        Path directory = root.resolve(String.valueOf(deviceId));
+        if (Files.isDirectory(directory)) {
+            try (var files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    String name = file.getFileName().toString();
+                    if (name.endsWith(EXTENSION)) {
+                        try {
+                            result.add(YearMonth.parse(name.substring(0, name.length() - EXTENSION.length()),
+                                    MONTH_FORMAT));
+                        } catch (DateTimeParseException ignored) {
+                        }
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private Path getSegmentPath(long deviceId, YearMonth month) {
+        return root.resolve(String.valueOf(deviceId)).resolve(month.format(MONTH_FORMAT) + EXTENSION);
+    }
+
+    public List<Position> read(long deviceId, YearMonth month) throws IOException {
+        Path path = getSegmentPath(deviceId, month);
+        if (!Files.exists(path)) {
+            return new ArrayList<>();
+        }
+        try (InputStream input = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            return PositionSegment.read(input, deviceId, objectMapper);
+        }
+    }
+
+    /**
+     * Replaces the segment of the given month. Existing archived positions are not merged automatically. An empty
+     * list removes the segment.
+     */
+    public synchronized void write(long deviceId, YearMonth month, List<Position> positions) throws IOException {
+        Path path = getSegmentPath(deviceId, month);
+        NavigableMap<YearMonth, Range> index = new TreeMap<>(readIndex(deviceId));
+        if (positions.isEmpty()) {
+            Files.deleteIfExists(path);
+            index.remove(month);
+        } else {
+            List<Position> sorted = new ArrayList<>(positions);
+            sorted.sort(ORDER);
+            Files.createDirectories(path.getParent());
+            Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+            try (OutputStream output = new GZIPOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                PositionSegment.write(output, sorted, objectMapper);
+            }
+            Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            index.put(month, new Range(
+                    sorted.stream().mapToLong(Position::getId).min().orElseThrow(),
+                    sorted.stream().mapToLong(Position::getId).max().orElseThrow()));
+        }
+        writeIndex(deviceId, index);
+    }
+
+    /**
+     * Adds positions to the segment of the given month. Positions are identified by id, so repeating an interrupted
+     * archiving run does not create duplicates.
+     */
+    public synchronized void append(long deviceId, YearMonth month, List<Position> positions) throws IOException {
+        Map<Long, Position> combined = new LinkedHashMap<>();
+        for (Position position : read(deviceId, month)) {
+            combined.put(position.getId(), position);
+        }
+        for (Position position : positions) {
+            combined.put(position.getId(), position);
+        }
+        write(deviceId, month, new ArrayList<>(combined.values()));
+    }
+
+    /**
+     * Deletes all archived positions of the device.
+     */
+    public synchronized void removeDevice(long deviceId) throws IOException {
+        Path directory = root.resolve(String.valueOf(deviceId));
+        if (Files.isDirectory(directory)) {
+            try (var files = Files.walk(directory)) {
+                for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.delete(file);
+                }
+            }
+        }
+        ranges.remove(deviceId);
+    }
+
+    private NavigableMap<YearMonth, Range> readIndex(long deviceId) throws IOException {
+        Path path = root.resolve(String.valueOf(deviceId)).resolve(INDEX);
+        NavigableMap<YearMonth, Range> result = new TreeMap<>();
+        if (Files.exists(path)) {
+            for (String line : Files.readAllLines(path, StandardCharsets.US_ASCII)) {
+                String[] values = line.split(" ");
+                if (values.length == 3) {
+                    result.put(YearMonth.parse(values[0], MONTH_FORMAT),
+                            new Range(Long.parseLong(values[1]), Long.parseLong(values[2])));
+                }
+            }
+        } else {
+            for (YearMonth month : getMonths(deviceId)) { // segments written before the index existed
+                List<Position> positions = read(deviceId, month);
+                if (!positions.isEmpty()) {
+                    result.put(month, new Range(
+                            positions.stream().mapToLong(Position::getId).min().orElseThrow(),
+                            positions.stream().mapToLong(Position::getId).max().orElseThrow()));
+                }
+            }
+            if (!result.isEmpty()) {
+                writeIndex(deviceId, new TreeMap<>(result));
+            }
+        }
+        return result;
+    }
+
+    private void writeIndex(long deviceId, NavigableMap<YearMonth, Range> index) throws IOException {
+        Path path = root.resolve(String.valueOf(deviceId)).resolve(INDEX);
+        if (index.isEmpty()) {
+            Files.deleteIfExists(path);
+            ranges.remove(deviceId);
+            return;
+        }
+        StringBuilder content = new StringBuilder();
+        index.forEach((month, range) -> content
+                .append(month.format(MONTH_FORMAT)).append(' ')
+                .append(range.minId).append(' ')
+                .append(range.maxId).append('\n'));
+        Path temporary = path.resolveSibling(INDEX + ".tmp");
+        Files.writeString(temporary, content, StandardCharsets.US_ASCII);
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        ranges.put(deviceId, Collections.unmodifiableNavigableMap(index));
+    }
+
+    private void loadRanges() throws IOException {
+        if (Files.isDirectory(root)) {
+            try (var directories = Files.list(root)) {
+                for (Path directory : (Iterable<Path>) directories::iterator) {
+                    try {
+                        long deviceId = Long.parseLong(directory.getFileName().toString());
+                        ranges.put(deviceId, Collections.unmodifiableNavigableMap(readIndex(deviceId)));
+                    } catch (NumberFormatException ignored) {
+                    }
+                }
+            }
+        }
+        rangesTime = System.currentTimeMillis();
+    }
+
+    private record Location(long deviceId, YearMonth month) {
+    }
+
+    private List<Location> locate(long id) {
+        List<Location> result = new ArrayList<>();
+        for (var device : ranges.entrySet()) {
+            for (var month : device.getValue().entrySet()) {
+                if (id >= month.getValue().minId && id <= month.getValue().maxId) {
+                    result.add(new Location(device.getKey(), month.getKey()));
+                }
+            }
+        }
+        return result;
+    }
+
+    private Position find(long id, List<Location> locations) throws IOException {
+        for (Location location : locations) {
+            for (Position position : read(location.deviceId, location.month)) {
+                if (position.getId() == id) {
+                    return position;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Finds an archived position by id. Ids come from a global sequence, so ranges of different devices overlap and
+     * every matching segment is checked. Ranges are reloaded from disk on a miss, at most once per
+     * {@link #RELOAD_INTERVAL}, because segments can also be written by other nodes.
+     */
+    public Position find(long id) throws IOException {
+        if (rangesTime == 0) {
+            loadRanges();
+        }
+        List<Location> locations = locate(id);
+        Position position = find(id, locations);
+        if (position == null && System.currentTimeMillis() - rangesTime > RELOAD_INTERVAL) {
+            loadRanges();
+            List<Location> reloaded = locate(id);
+            reloaded.removeAll(locations);
+            position = find(id, reloaded);
+        }
+        return position;
+    }
+
+    private record Query(long deviceId, Date from, Date to) {
+    }
+
+    private static Query getQuery(Condition condition) {
+        List<Condition> conditions = new ArrayList<>();
+        flatten(condition, conditions);
+        long deviceId = 0;
+        Date from = null;
+        Date to = null;
+        for (Condition item : conditions) {
+            if (item instanceof Condition.Equals equals && equals.getColumn().equals("deviceId")
+                    && equals.getValue() instanceof Number value) {
+                deviceId = value.longValue();
+            } else if (item instanceof Condition.Between between && between.getColumn().equals("fixTime")
+                    && between.getFromValue() instanceof Date fromValue
+                    && between.getToValue() instanceof Date toValue) {
+                from = fromValue;
+                to = toValue;
+            }
+        }
+        return deviceId > 0 && from != null ? new Query(deviceId, from, to) : null;
+    }
+
+    private static long getId(Condition condition) {
+        if (condition instanceof Condition.Equals equals && equals.getColumn().equals("id")
+                && equals.getValue() instanceof Number value) {
+            return value.longValue();
+        }
+        return 0;
+    }
+
+    private static void flatten(Condition condition, List<Condition> result) {
+        if (condition instanceof Condition.And and) {
+            flatten(and.getFirst(), result);
+            flatten(and.getSecond(), result);
+        } else if (condition != null) {
+            result.add(condition);
+        }
+    }
+
+    /**
+     * Merges archived positions into a database result. Requests for a single device with a fix time range and lookups
+     * by id are served from the archive. Maintenance queries can use plain comparisons instead of a range to bypass it.
+     */
+    public Stream<Position> merge(Request request, Stream<Position> database) throws StorageException {
+        long id = getId(request.getCondition());
+        if (id > 0) {
+            Stream<Position> archived = Stream.of(id).flatMap(key -> {
+                try {
+                    return Stream.ofNullable(find(key));
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            return Stream.concat(database, archived).limit(1).onClose(database::close);
+        }
+        Query query = getQuery(request.getCondition());
+        if (query == null) {
+            return database;
+        }
+        NavigableSet<YearMonth> months;
+        try {
+            months = getMonths(query.deviceId).subSet(
+                    YearMonth.from(query.from.toInstant().atZone(ZoneOffset.UTC)), true,
+                    YearMonth.from(query.to.toInstant().atZone(ZoneOffset.UTC)), true);
+        } catch (IOException e) {
+            throw new StorageException(e);
+        }
+        if (months.isEmpty()) {
+            return database;
+        }
+
+        Order order = request.getOrder();
+        boolean descending = order != null && order.getDescending();
+        Iterator<Position> archived = new SegmentIterator(
+                query.deviceId, descending ? months.descendingSet() : months, descending, request.getCondition());
+
+        Stream<Position> result;
+        if (order != null && order.getColumn().equals("fixTime")) {
+            Comparator<Position> comparator = descending ? ORDER.reversed() : ORDER;
+            Iterator<Position> merged = new MergeIterator(archived, database.iterator(), comparator);
+            result = StreamSupport.stream(
+                    Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED), false);
+        } else {
+            result = Stream.concat(
+                    StreamSupport.stream(Spliterators.spliteratorUnknownSize(archived, Spliterator.ORDERED), false),
+                    database);
+        }
+        result = result.onClose(database::close);
+        if (order != null && order.getLimit() > 0) {
+            result = result.limit(order.getLimit());
+        }
+        return result;
+    }
+
+    /**
+     * Removes archived positions matching a request that {@link #merge} would serve from the archive.
+     */
+    public synchronized void remove(Request request) throws StorageException {
+        try {
+            long id = getId(request.getCondition());
+            if (id > 0) {
+                Position position = find(id);
+                if (position != null) {
+                    YearMonth month = YearMonth.from(position.getFixTime().toInstant().atZone(ZoneOffset.UTC));
+                    List<Position> positions = read(position.getDeviceId(), month);
+                    positions.removeIf(item -> item.getId() == id);
+                    write(position.getDeviceId(), month, positions);
+                }
+                return;
+            }
+            Query query = getQuery(request.getCondition());
+            if (query != null) {
+                for (YearMonth month : getMonths(query.deviceId).subSet(
+                        YearMonth.from(query.from.toInstant().atZone(ZoneOffset.UTC)), true,
+                        YearMonth.from(query.to.toInstant().atZone(ZoneOffset.UTC)), true)) {
+                    List<Position> positions = read(query.deviceId, month);
+                    if (positions.removeIf(position -> matches(request.getCondition(), position))) {
+                        write(query.deviceId, month, positions);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new StorageException(e);
+        }
+    }
+
+    private static boolean matches(Condition condition, Position position) {
+        if (condition instanceof Condition.And and) {
+            return matches(and.getFirst(), position) && matches(and.getSecond(), position);
+        } else if (condition instanceof Condition.Or or) {
+            return matches(or.getFirst(), position) || matches(or.getSecond(), position);
+        } else if (condition instanceof Condition.Compare compare) {
+            int result = compare(getValue(position, compare.getColumn()), compare.getValue());
+            return switch (compare.getOperator()) {
+                case "=" -> result == 0;
+                case "<>", "!=" -> result != 0;
+                case "<" -> result < 0;
+                case "<=" -> result <= 0;
+                case ">" -> result > 0;
+                case ">=" -> result >= 0;
+                default -> true;
+            };
+        } else if (condition instanceof Condition.Between between) {
+            Object value = getValue(position, between.getColumn());
+            return compare(value, between.getFromValue()) >= 0 && compare(value, between.getToValue()) <= 0;
+        }
+        return true;
+    }
+
+    private static Object getValue(Position position, String column) {
+        var property = ReflectionCache.getProperties(Position.class, "get").get(column);
+        if (property == null) {
+            return null;
+        }
+        try {
+            return property.method().invoke(position);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            return null;
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Object first, Object second) {
+        if (first instanceof Number firstNumber && second instanceof Number secondNumber) {
+            return Double.compare(firstNumber.doubleValue(), secondNumber.doubleValue());
+        } else if (first instanceof Comparable comparable && second != null
+                && first.getClass().isInstance(second)) {
+            return comparable.compareTo(second);
+        }
+        return 0;
+    }
+
+    private final class SegmentIterator implements Iterator<Position> {
+
+        private final long deviceId;
+        private final Iterator<YearMonth> months;
+        private final boolean descending;
+        private final Condition condition;
+        private Iterator<Position> current = Collections.emptyIterator();
+        private Position next;
+
+        SegmentIterator(long deviceId, NavigableSet<YearMonth> months, boolean descending, Condition condition) {
+            this.deviceId = deviceId;
+            this.months = months.iterator();
+            this.descending = descending;
+            this.condition = condition;
+        }
+
+        private Position advance() {
+            while (true) {
+                while (current.hasNext()) {
+                    Position position = current.next();
+                    if (matches(condition, position)) {
+                        return position;
+                    }
+                }
+                if (!months.hasNext()) {
+                    return null;
+                }
+                try {
+                    List<Position> positions = read(deviceId, months.next());
+                    if (descending) {
+                        Collections.reverse(positions);
+                    }
+                    current = positions.iterator();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) {
+                next = advance();
+            }
+            return next != null;
+        }
+
+        @Override
+        public Position next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Position result = next;
+            next = null;
+            return result;
+        }
+
+    }
+
+    private static final class MergeIterator implements Iterator<Position> {
+
+        private final Iterator<Position> first;
+        private final Iterator<Position> second;
+        private final Comparator<Position> comparator;
+        private Position firstNext;
+        private Position secondNext;
+
+        MergeIterator(Iterator<Position> first, Iterator<Position> second, Comparator<Position> comparator) {
+            this.first = first;
+            this.second = second;
+            this.comparator = comparator;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (firstNext == null && first.hasNext()) {
+                firstNext = first.next();
+            }
+            if (secondNext == null && second.hasNext()) {
+                secondNext = second.next();
+            }
+            return firstNext != null || secondNext != null;
+        }
+
+        @Override
+        public Position next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Position result;
+            if (firstNext != null && secondNext != null && firstNext.getId() == secondNext.getId()) {
+                result = secondNext; // left in the database by an interrupted archiving run
+                firstNext = null;
+                secondNext = null;
+            } else if (secondNext == null || firstNext != null && comparator.compare(firstNext, secondNext) <= 0) {
+                result = firstNext;
+                firstNext = null;
+            } else {
+                result = secondNext;
+                secondNext = null;
+            }
+            return result;
+        }
+
+    }
+
+}
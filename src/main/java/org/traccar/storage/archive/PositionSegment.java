@@ -0,0 +1,363 @@
+/*
+ * Copyright 2025 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.storage.archive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.traccar.model.Network;
+import org.traccar.model.Position;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Columnar encoding of a list of positions sorted by fix time. Every property is stored as a separate column, so
+ * similar values end up next to each other and compress well. Timestamps and coordinates are delta encoded,
+ * coordinates are quantized to 1e-7 degrees and strings repeated across rows (protocol, attribute keys) are stored
+ * in a dictionary. Other numbers keep full double precision.
+ */
+public final class PositionSegment {
+
+    private static final int MAGIC = 0x54435053;
+    private static final int VERSION = 1;
+
+    private static final double COORDINATE_SCALE = 1e7;
+
+    private static final int TYPE_NULL = 0;
+    private static final int TYPE_FALSE = 1;
+    private static final int TYPE_TRUE = 2;
+    private static final int TYPE_INTEGER = 3;
+    private static final int TYPE_LONG = 4;
+    private static final int TYPE_DOUBLE = 5;
+    private static final int TYPE_STRING = 6;
+    private static final int TYPE_JSON = 7;
+
+    private PositionSegment() {
+    }
+
+    public static void write(
+            OutputStream stream, List<Position> positions, ObjectMapper objectMapper) throws IOException {
+
+        DataOutputStream output = new DataOutputStream(stream);
+        output.writeInt(MAGIC);
+        output.writeByte(VERSION);
+        writeVarLong(output, positions.size());
+
+        Map<String, Integer> dictionary = new LinkedHashMap<>();
+        for (Position position : positions) {
+            if (position.getProtocol() != null) {
+                dictionary.putIfAbsent(position.getProtocol(), dictionary.size());
+            }
+            for (String key : position.getAttributes().keySet()) {
+                dictionary.putIfAbsent(key, dictionary.size());
+            }
+        }
+        writeVarLong(output, dictionary.size());
+        for (String value : dictionary.keySet()) {
+            writeString(output, value);
+        }
+
+        long previous = 0;
+        for (Position position : positions) {
+            writeVarLong(output, zigZag(position.getId() - previous));
+            previous = position.getId();
+        }
+        previous = 0;
+        for (Position position : positions) {
+            long time = position.getFixTime().getTime();
+            writeVarLong(output, zigZag(time - previous));
+            previous = time;
+        }
+        for (Position position : positions) {
+            writeVarLong(output, zigZag(getTime(position.getDeviceTime(), position) - position.getFixTime().getTime()));
+        }
+        for (Position position : positions) {
+            writeVarLong(output, zigZag(getTime(position.getServerTime(), position) - position.getFixTime().getTime()));
+        }
+        previous = 0;
+        for (Position position : positions) {
+            long value = Math.round(position.getLatitude() * COORDINATE_SCALE);
+            writeVarLong(output, zigZag(value - previous));
+            previous = value;
+        }
+        previous = 0;
+        for (Position position : positions) {
+            long value = Math.round(position.getLongitude() * COORDINATE_SCALE);
+            writeVarLong(output, zigZag(value - previous));
+            previous = value;
+        }
+        for (Position position : positions) {
+            output.writeDouble(position.getAltitude());
+        }
+        for (Position position : positions) {
+            output.writeDouble(position.getSpeed());
+        }
+        for (Position position : positions) {
+            output.writeDouble(position.getCourse());
+        }
+        for (Position position : positions) {
+            output.writeDouble(position.getAccuracy());
+        }
+
+        int bits = 0;
+        for (int i = 0; i < positions.size(); i++) {
+            if (positions.get(i).getValid()) {
+                bits |= 1 << (i % 8);
+            }
+            if (i % 8 == 7 || i == positions.size() - 1) {
+                output.writeByte(bits);
+                bits = 0;
+            }
+        }
+
+        for (Position position : positions) {
+            writeVarLong(output, position.getProtocol() != null ? dictionary.get(position.getProtocol()) + 1 : 0);
+        }
+        for (Position position : positions) {
+            writeNullableString(output, position.getAddress());
+        }
+        for (Position position : positions) {
+            writeNullableString(output, position.getNetwork() != null
+                    ? objectMapper.writeValueAsString(position.getNetwork()) : null);
+        }
+        for (Position position : positions) {
+            writeNullableString(output, position.getGeofenceIds() != null
+                    ? objectMapper.writeValueAsString(position.getGeofenceIds()) : null);
+        }
+
+        for (Position position : positions) {
+            writeVarLong(output, position.getAttributes().size());
+            for (Map.Entry<String, Object> entry : position.getAttributes().entrySet()) {
+                writeVarLong(output, dictionary.get(entry.getKey()));
+                writeValue(output, entry.getValue(), objectMapper);
+            }
+        }
+
+        output.flush();
+    }
+
+    public static List<Position> read(
+            InputStream stream, long deviceId, ObjectMapper objectMapper) throws IOException {
+
+        DataInputStream input = new DataInputStream(stream);
+        if (input.readInt() != MAGIC) {
+            throw new IOException("Unsupported archive segment format");
+        }
+        int version = input.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported archive segment version " + version);
+        }
+        int count = (int) readVarLong(input);
+
+        String[] dictionary = new String[(int) readVarLong(input)];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = readString(input);
+        }
+
+        List<Position> positions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Position position = new Position();
+            position.setDeviceId(deviceId);
+            positions.add(position);
+        }
+
+        long previous = 0;
+        for (Position position : positions) {
+            previous += unZigZag(readVarLong(input));
+            position.setId(previous);
+        }
+        previous = 0;
+        for (Position position : positions) {
+            previous += unZigZag(readVarLong(input));
+            position.setFixTime(new Date(previous));
+        }
+        for (Position position : positions) {
+            position.setDeviceTime(new Date(position.getFixTime().getTime() + unZigZag(readVarLong(input))));
+        }
+        for (Position position : positions) {
+            position.setServerTime(new Date(position.getFixTime().getTime() + unZigZag(readVarLong(input))));
+        }
+        previous = 0;
+        for (Position position : positions) {
+            previous += unZigZag(readVarLong(input));
+            position.setLatitude(previous / COORDINATE_SCALE);
+        }
+        previous = 0;
+        for (Position position : positions) {
+            previous += unZigZag(readVarLong(input));
+            position.setLongitude(previous / COORDINATE_SCALE);
+        }
+        for (Position position : positions) {
+            position.setAltitude(input.readDouble());
+        }
+        for (Position position : positions) {
+            position.setSpeed(input.readDouble());
+        }
+        for (Position position : positions) {
+            position.setCourse(input.readDouble());
+        }
+        for (Position position : positions) {
+            position.setAccuracy(input.readDouble());
+        }
+
+        int bits = 0;
+        for (int i = 0; i < count; i++) {
+            if (i % 8 == 0) {
+                bits = input.readUnsignedByte();
+            }
+            positions.get(i).setValid((bits & (1 << (i % 8))) != 0);
+        }
+
+        for (Position position : positions) {
+            int index = (int) readVarLong(input);
+            position.setProtocol(index > 0 ? dictionary[index - 1] : null);
+        }
+        for (Position position : positions) {
+            position.setAddress(readNullableString(input));
+        }
+        for (Position position : positions) {
+            String value = readNullableString(input);
+            if (value != null) {
+                position.setNetwork(objectMapper.readValue(value, Network.class));
+            }
+        }
+        for (Position position : positions) {
+            String value = readNullableString(input);
+            if (value != null) {
+                position.setGeofenceIds(List.of(objectMapper.readValue(value, Long[].class)));
+            }
+        }
+
+        for (Position position : positions) {
+            int size = (int) readVarLong(input);
+            for (int i = 0; i < size; i++) {
+                String key = dictionary[(int) readVarLong(input)];
+                position.getAttributes().put(key, readValue(input, objectMapper));
+            }
+        }
+
+        return positions;
+    }
+
+    private static long getTime(Date time, Position position) {
+        return time != null ? time.getTime() : position.getFixTime().getTime();
+    }
+
+    private static void writeValue(
+            DataOutputStream output, Object value, ObjectMapper objectMapper) throws IOException {
+        if (value == null) {
+            output.writeByte(TYPE_NULL);
+        } else if (value instanceof Boolean booleanValue) {
+            output.writeByte(booleanValue ? TYPE_TRUE : TYPE_FALSE);
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            output.writeByte(TYPE_INTEGER);
+            writeVarLong(output, zigZag(((Number) value).longValue()));
+        } else if (value instanceof Long longValue) {
+            output.writeByte(TYPE_LONG);
+            writeVarLong(output, zigZag(longValue));
+        } else if (value instanceof Double || value instanceof Float) {
+            output.writeByte(TYPE_DOUBLE);
+            output.writeDouble(((Number) value).doubleValue());
+        } else if (value instanceof String stringValue) {
+            output.writeByte(TYPE_STRING);
+            writeString(output, stringValue);
+        } else {
+            output.writeByte(TYPE_JSON);
+            writeString(output, objectMapper.writeValueAsString(value));
+        }
+    }
+
+    private static Object readValue(DataInputStream input, ObjectMapper objectMapper) throws IOException {
+        int type = input.readUnsignedByte();
+        return switch (type) {
+            case TYPE_NULL -> null;
+            case TYPE_FALSE -> false;
+            case TYPE_TRUE -> true;
+            case TYPE_INTEGER -> (int) unZigZag(readVarLong(input));
+            case TYPE_LONG -> unZigZag(readVarLong(input));
+            case TYPE_DOUBLE -> input.readDouble();
+            case TYPE_STRING -> readString(input);
+            case TYPE_JSON -> objectMapper.readValue(readString(input), Object.class);
+            default -> throw new IOException("Unknown value type " + type);
+        };
+    }
+
+    private static void writeNullableString(DataOutputStream output, String value) throws IOException {
+        if (value == null) {
+            writeVarLong(output, 0);
+        } else {
+            byte[] data = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(output, data.length + 1);
+            output.write(data);
+        }
+    }
+
+    private static String readNullableString(DataInputStream input) throws IOException {
+        int length = (int) readVarLong(input);
+        if (length == 0) {
+            return null;
+        }
+        byte[] data = new byte[length - 1];
+        input.readFully(data);
+        return new String(data, StandardCharsets.UTF_8);
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        writeNullableString(output, value);
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        String value = readNullableString(input);
+        return value != null ? value : "";
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void writeVarLong(DataOutputStream output, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            output.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream input) throws IOException {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = input.readUnsignedByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed variable length integer");
+    }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2025 Anton Tananaev (anton@traccar.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.traccar.storage.query;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Keyset pagination position. Rows are ordered by device, time and id, so the cursor points right after the last
+ * returned row. It is passed to clients as an opaque URL-safe token.
+ */
+public class Cursor {
+
+    private static final int TOKEN_LENGTH = 3 * Long.BYTES;
+
+    private final long deviceId;
+    private final Date time;
+    private final long id;
+
+    public Cursor(long deviceId, Date time, long id) {
+        this.deviceId = deviceId;
+        this.time = time;
+        this.id = id;
+    }
+
+    public long getDeviceId() {
+        return deviceId;
+    }
+
+    public Date getTime() {
+        return time;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public Condition getCondition(String timeColumn) {
+        return new Condition.Or(
+                new Condition.Compare(timeColumn, ">", time),
+                new Condition.And(
+                        new Condition.Equals(timeColumn, time),
+                        new Condition.Compare("id", ">", id)));
+    }
+
+    public String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(TOKEN_LENGTH);
+        buffer.putLong(deviceId);
+        buffer.putLong(time.getTime());
+        buffer.putLong(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    public static Cursor decode(String token) {
+        byte[] data = Base64.getUrlDecoder().decode(token);
+        if (data.length != TOKEN_LENGTH) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        return new Cursor(buffer.getLong(), new Date(buffer.getLong()), buffer.getLong());
+    }
+
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2022 Anton Tananaev (anton@traccar.org)
+ * Copyright 2022 - 2025 Anton Tananaev (anton@traccar.org)
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -15,9 +15,11 @@
  */
 package org.traccar.storage.query;
 
+import java.util.List;
+
 public class Order {
 
-    private final String column;
+    private final List<String> columns;
     private final boolean descending;
     private final int limit;
 
@@ -26,13 +28,21 @@ public class Order {
     }
 
     public Order(String column, boolean descending, int limit) {
-        this.column = column;
+        this(List.of(column), descending, limit);
+    }
+
+    public Order(List<String> columns, boolean descending, int limit) {
+        this.columns = columns;
         this.descending = descending;
         this.limit = limit;
     }
 
     public String getColumn() {
-        return column;
+        return columns.get(0);
+    }
+
+    public List<String> getColumns() {
+        return columns;
     }
 
     public boolean getDescending() {
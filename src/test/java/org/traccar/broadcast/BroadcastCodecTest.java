@@ -0,0 +1,62 @@
+package org.traccar.broadcast;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.traccar.model.Position;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class BroadcastCodecTest {
+
+    @Test
+    public void testEncodeDecode() throws Exception {
+        var codec = new BroadcastCodec(new ObjectMapper());
+
+        Position position = new Position("gps103");
+        position.setId(100);
+        position.setDeviceId(5);
+        position.setFixTime(new Date(1700000000000L));
+        position.setDeviceTime(new Date(1700000000000L));
+        position.setValid(true);
+        position.setLatitude(35.1234567);
+        position.setLongitude(-51.7654321);
+        position.setSpeed(12.5);
+        position.setGeofenceIds(List.of(1L, 2L));
+        position.set(Position.KEY_IGNITION, true);
+        position.set(Position.KEY_SATELLITES, 7);
+        position.set(Position.KEY_ODOMETER, 123456789012L);
+        position.set(Position.KEY_POWER, 12.3);
+        position.set(Position.KEY_DRIVER_UNIQUE_ID, "driver");
+
+        var positionMessage = new BroadcastMessage();
+        positionMessage.setPosition(position);
+        var commandMessage = new BroadcastMessage();
+        commandMessage.setCommandDeviceId(7L);
+
+        byte[] data = codec.encodeBatch("node", null, List.of(
+                codec.encodeMessage(positionMessage), codec.encodeMessage(commandMessage)));
+        var batch = codec.decodeBatch(data);
+
+        assertEquals("node", batch.sender());
+        assertEquals(2, batch.messages().size());
+
+        Position decoded = batch.messages().get(0).getPosition();
+        assertEquals(100, decoded.getId());
+        assertEquals(5, decoded.getDeviceId());
+        assertEquals("gps103", decoded.getProtocol());
+        assertEquals(position.getFixTime(), decoded.getFixTime());
+        assertEquals(position.getServerTime(), decoded.getServerTime());
+        assertNull(decoded.getAddress());
+        assertEquals(35.1234567, decoded.getLatitude());
+        assertEquals(-51.7654321, decoded.getLongitude());
+        assertEquals(List.of(1L, 2L), decoded.getGeofenceIds());
+        assertEquals(position.getAttributes(), decoded.getAttributes());
+
+        assertEquals(7L, batch.messages().get(1).getCommandDeviceId());
+    }
+
+}
@@ -0,0 +1,56 @@
+package org.traccar.broadcast;
+
+import org.junit.jupiter.api.Test;
+import org.traccar.model.Position;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class InterestRoutingTest {
+
+    private static Position createPosition(long deviceId) {
+        Position position = new Position();
+        position.setDeviceId(deviceId);
+        return position;
+    }
+
+    @Test
+    public void testIncrementalInterest() {
+        var hub = new LocalBroadcastHub();
+        var node0 = hub.addNode();
+        var node1 = hub.addNode();
+        node0.join();
+        node1.join();
+
+        node0.updatePosition(true, createPosition(10));
+        assertEquals(0, node1.getReceived().size());
+
+        node1.updateInterest(10, true);
+        node0.updatePosition(true, createPosition(10));
+        assertEquals(0, node1.getReceived().size());
+
+        node1.flush();
+        node0.updatePosition(true, createPosition(10));
+        assertEquals(1, node1.getReceived().size());
+
+        node1.updateInterest(10, false);
+        node1.flush();
+        node0.updatePosition(true, createPosition(10));
+        assertEquals(1, node1.getReceived().size());
+    }
+
+    @Test
+    public void testJoin() {
+        var hub = new LocalBroadcastHub();
+        var node0 = hub.addNode();
+        node0.setInterest(Set.of(10L));
+
+        var node1 = hub.addNode();
+        node1.join();
+
+        node1.updatePosition(true, createPosition(10));
+        assertEquals(1, node0.getReceived().size());
+    }
+
+}
@@ -0,0 +1,76 @@
+package org.traccar.broadcast;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * In-process stand-in for the cluster transport. Batches are delivered synchronously to every other node, like a
+ * shared pub/sub channel, so several nodes can be tested in a single JVM.
+ */
+public class LocalBroadcastHub {
+
+    private final List<Node> nodes = new ArrayList<>();
+
+    public Node addNode() {
+        Config config = new Config();
+        config.setString(Keys.BROADCAST_FLUSH_INTERVAL, "0");
+        config.setString(Keys.BROADCAST_INTEREST, "true");
+        Node node = new Node(config, new ShardManager(config));
+        nodes.add(node);
+        return node;
+    }
+
+    public Node addNode(int shardCount, int shardIndex) {
+        Config config = new Config();
+        config.setString(Keys.BROADCAST_FLUSH_INTERVAL, "0");
+        config.setString(Keys.BROADCAST_SHARD_COUNT, String.valueOf(shardCount));
+        config.setString(Keys.BROADCAST_SHARD_INDEX, String.valueOf(shardIndex));
+        Node node = new Node(config, new ShardManager(config));
+        nodes.add(node);
+        return node;
+    }
+
+    public class Node extends BatchedBroadcastService {
+
+        private final List<BroadcastMessage> received = new ArrayList<>();
+
+        Node(Config config, ShardManager shardManager) {
+            super(config, new ObjectMapper(), shardManager, 8192);
+        }
+
+        public List<BroadcastMessage> getReceived() {
+            return received;
+        }
+
+        public void setInterest(Set<Long> deviceIds) {
+            registerInterest(() -> deviceIds);
+            announce(false);
+        }
+
+        public void join() {
+            announce(true);
+        }
+
+        @Override
+        protected void sendBatch(String target, byte[] data) {
+            for (Node node : nodes) {
+                if (node != this) {
+                    node.handleBatch(data);
+                }
+            }
+        }
+
+        @Override
+        protected void handleMessage(BroadcastMessage message) throws Exception {
+            received.add(message);
+            super.handleMessage(message);
+        }
+
+    }
+
+}
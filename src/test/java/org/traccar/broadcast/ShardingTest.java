@@ -0,0 +1,75 @@
+package org.traccar.broadcast;
+
+import org.junit.jupiter.api.Test;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.Device;
+import org.traccar.model.ObjectOperation;
+import org.traccar.model.Position;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ShardingTest {
+
+    @Test
+    public void testOwnership() {
+        int count = 3;
+        ShardManager[] shardManagers = new ShardManager[count];
+        for (int i = 0; i < count; i++) {
+            Config config = new Config();
+            config.setString(Keys.BROADCAST_SHARD_COUNT, String.valueOf(count));
+            config.setString(Keys.BROADCAST_SHARD_INDEX, String.valueOf(i));
+            shardManagers[i] = new ShardManager(config);
+        }
+
+        int[] owned = new int[count];
+        for (long deviceId = 1; deviceId <= 3000; deviceId++) {
+            int owners = 0;
+            for (int i = 0; i < count; i++) {
+                if (shardManagers[i].owns(deviceId)) {
+                    owners += 1;
+                    owned[i] += 1;
+                }
+            }
+            assertEquals(1, owners);
+        }
+        for (int value : owned) {
+            assertTrue(value > 800);
+        }
+    }
+
+    @Test
+    public void testRouting() throws Exception {
+        var hub = new LocalBroadcastHub();
+        var node0 = hub.addNode(3, 0);
+        var node1 = hub.addNode(3, 1);
+        var node2 = hub.addNode(3, 2);
+
+        node0.setInterest(Set.of());
+        node1.setInterest(Set.of(10L));
+        node2.setInterest(Set.of(20L));
+
+        Position position = new Position();
+        position.setDeviceId(10);
+        node0.updatePosition(true, position);
+
+        assertEquals(1, node1.getReceived().size());
+        assertEquals(0, node2.getReceived().size());
+
+        Device device = new Device();
+        device.setId(30);
+        node0.updateDevice(true, device);
+
+        assertEquals(1, node1.getReceived().size());
+        assertEquals(0, node2.getReceived().size());
+
+        node0.invalidateObject(true, Device.class, 30, ObjectOperation.UPDATE);
+
+        assertEquals(2, node1.getReceived().size());
+        assertEquals(1, node2.getReceived().size());
+    }
+
+}
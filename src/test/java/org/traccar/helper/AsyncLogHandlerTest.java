@@ -0,0 +1,93 @@
+package org.traccar.helper;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AsyncLogHandlerTest {
+
+    private static class CaptureHandler extends Handler {
+
+        private final List<String> messages = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch latch;
+
+        CaptureHandler(CountDownLatch latch) {
+            this.latch = latch;
+        }
+
+        @Override
+        public void publish(LogRecord record) {
+            if (latch != null && Thread.currentThread().getName().equals("log-writer")) {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            messages.add(record.getMessage());
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+    }
+
+    @Test
+    public void testOrder() {
+        var target = new CaptureHandler(null);
+        var handler = new AsyncLogHandler(target, 16);
+        int published = 0;
+        for (int i = 0; i < 1000; i++) {
+            var record = new LogRecord(Level.INFO, String.valueOf(i));
+            handler.publish(record);
+            published += 1;
+            if (i % 10 == 0) {
+                Thread.yield();
+            }
+        }
+        handler.close();
+
+        long dropped = handler.getDropped();
+        assertEquals(published, target.messages.stream().filter(m -> !m.startsWith("Log")).count() + dropped);
+        int previous = -1;
+        for (String message : target.messages) {
+            if (!message.startsWith("Log")) {
+                int current = Integer.parseInt(message);
+                assertTrue(current > previous);
+                previous = current;
+            }
+        }
+    }
+
+    @Test
+    public void testOverflow() throws InterruptedException {
+        var latch = new CountDownLatch(1);
+        var target = new CaptureHandler(latch);
+        var handler = new AsyncLogHandler(target, 4);
+        for (int i = 0; i < 20; i++) {
+            handler.publish(new LogRecord(Level.INFO, "info"));
+        }
+        handler.publish(new LogRecord(Level.WARNING, "warning"));
+        assertTrue(handler.getDropped() > 0);
+        assertTrue(target.messages.contains("warning"));
+
+        latch.countDown();
+        handler.close();
+        assertTrue(target.messages.get(target.messages.size() - 1).startsWith("Log buffer full"));
+    }
+
+}
@@ -0,0 +1,49 @@
+package org.traccar.helper;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ParserTest {
+
+    @Test
+    public void testAccessors() {
+        Pattern pattern = new PatternBuilder()
+                .number("(d+)(dd.d+),")
+                .expression("([NS]),")
+                .number("(x+),")
+                .number("(-?d+.d+)?,")
+                .number("(d+)")
+                .compile();
+
+        Parser parser = new Parser(pattern, "4530.1234,S,1F,-12.5,9876543210");
+        assertTrue(parser.matches());
+        assertEquals(-(45 + 30.1234 / 60), parser.nextCoordinate(), 0.0000001);
+        assertEquals(31, parser.nextHexInt());
+        assertEquals(-12.5, parser.nextDouble(0), 0.0);
+        assertEquals(9876543210L, parser.nextLong());
+
+        parser = new Parser(pattern, "4530.1234,N,0,,1");
+        assertTrue(parser.matches());
+        parser.skip(4);
+        assertNull(parser.nextDouble());
+        assertEquals(1, parser.nextInt());
+
+        assertFalse(new Parser(pattern, "4530.1234,S,,,1").matches());
+    }
+
+    @Test
+    public void testParseDecimal() {
+        assertEquals(123.456, Parser.parseDecimal("123.456", 0, 7));
+        assertEquals(-0.5, Parser.parseDecimal("x-0.5", 1, 5));
+        assertEquals(42.0, Parser.parseDecimal("42.", 0, 3));
+        assertTrue(Double.isNaN(Parser.parseDecimal("1e5", 0, 3)));
+        assertTrue(Double.isNaN(Parser.parseDecimal("1234567890.1234567", 0, 18)));
+    }
+
+}
@@ -0,0 +1,34 @@
+package org.traccar.helper;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Calendar;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PositionLoggerTest {
+
+    private String formatDecimal(double value, int decimals) {
+        StringBuilder builder = new StringBuilder();
+        PositionLogger.appendDecimal(builder, value, decimals);
+        return builder.toString();
+    }
+
+    @Test
+    public void testDecimal() {
+        for (double value : new double[] {0, 1, -1, 0.5, 12.34567, -33.867487, 151.20699, 0.000004, 359.96, 1e15}) {
+            assertEquals(String.format("%.5f", value), formatDecimal(value, 5));
+            assertEquals(String.format("%.1f", value), formatDecimal(value, 1));
+        }
+    }
+
+    @Test
+    public void testDate() {
+        Date date = new Date(1735787045000L);
+        StringBuilder builder = new StringBuilder();
+        PositionLogger.appendDate(builder, Calendar.getInstance(), date);
+        assertEquals(DateUtil.formatDate(date, false), builder.toString());
+    }
+
+}
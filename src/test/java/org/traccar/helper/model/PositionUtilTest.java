@@ -0,0 +1,73 @@
+package org.traccar.helper.model;
+
+import org.junit.jupiter.api.Test;
+import org.traccar.model.Position;
+import org.traccar.storage.MemoryStorage;
+import org.traccar.storage.Storage;
+import org.traccar.storage.StorageException;
+import org.traccar.storage.query.Cursor;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PositionUtilTest {
+
+    private static Storage createStorage(int count) throws StorageException {
+        Storage storage = new MemoryStorage();
+        for (int i = 1; i <= count; i++) {
+            Position position = new Position();
+            position.setId(i);
+            position.setDeviceId(1);
+            position.setFixTime(new Date(i * 1000L));
+            storage.addObject(position, null);
+        }
+        return storage;
+    }
+
+    private static List<Long> getIds(List<Position> positions) {
+        return positions.stream().map(Position::getId).toList();
+    }
+
+    private static Cursor getCursor(List<Position> positions) {
+        Position last = positions.get(positions.size() - 1);
+        return new Cursor(last.getDeviceId(), last.getFixTime(), last.getId());
+    }
+
+    @Test
+    public void testPage() throws Exception {
+        Storage storage = createStorage(5);
+        Date from = new Date(0);
+        Date to = new Date(10000);
+
+        var page = PositionUtil.getPositionsPage(storage, 1, from, to, null, 2, null);
+        assertEquals(List.of(1L, 2L), getIds(page));
+
+        page = PositionUtil.getPositionsPage(storage, 1, from, to, getCursor(page), 2, null);
+        assertEquals(List.of(3L, 4L), getIds(page));
+
+        page = PositionUtil.getPositionsPage(storage, 1, from, to, getCursor(page), 2, null);
+        assertEquals(List.of(5L), getIds(page));
+
+        page = PositionUtil.getPositionsPage(storage, 1, from, to, getCursor(page), 2, null);
+        assertTrue(page.isEmpty());
+    }
+
+    @Test
+    public void testPageFilter() throws Exception {
+        Storage storage = createStorage(9);
+        Date from = new Date(0);
+        Date to = new Date(10000);
+
+        var page = PositionUtil.getPositionsPage(
+                storage, 1, from, to, null, 2, position -> position.getId() % 3 == 0);
+        assertEquals(List.of(3L, 6L), getIds(page));
+
+        page = PositionUtil.getPositionsPage(
+                storage, 1, from, to, getCursor(page), 2, position -> position.getId() % 3 == 0);
+        assertEquals(List.of(9L), getIds(page));
+    }
+
+}
@@ -0,0 +1,107 @@
+package org.traccar.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AttributeMapTest {
+
+    @Test
+    public void testMatchesLinkedHashMap() {
+        Random random = new Random(1);
+        Map<String, Object> expected = new LinkedHashMap<>();
+        AttributeMap actual = new AttributeMap();
+        for (int i = 0; i < 10000; i++) {
+            String key = "key" + random.nextInt(40);
+            switch (random.nextInt(7)) {
+                case 0 -> {
+                    int value = random.nextInt();
+                    assertEquals(expected.put(key, value), actual.put(key, value));
+                }
+                case 1 -> {
+                    long value = random.nextLong();
+                    assertEquals(expected.put(key, value), actual.put(key, value));
+                }
+                case 2 -> {
+                    double value = random.nextDouble();
+                    assertEquals(expected.put(key, value), actual.put(key, value));
+                }
+                case 3 -> assertEquals(expected.put(key, "text" + i), actual.put(key, "text" + i));
+                case 4 -> assertEquals(expected.put(key, true), actual.put(key, true));
+                default -> assertEquals(expected.remove(key), actual.remove(key));
+            }
+            if (i % 100 == 0) {
+                assertEquals(expected, actual);
+                assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(actual.keySet()));
+                assertEquals(expected.hashCode(), actual.hashCode());
+            }
+        }
+        assertEquals(expected.size(), actual.size());
+    }
+
+    @Test
+    public void testTypes() {
+        AttributeMap map = new AttributeMap();
+        map.putInt("int", 5);
+        map.putLong("long", 5L);
+        map.putDouble("double", 5.5);
+        map.putBoolean("boolean", true);
+        map.put("short", (short) 5);
+        assertEquals(Integer.class, map.get("int").getClass());
+        assertEquals(Long.class, map.get("long").getClass());
+        assertEquals(Double.class, map.get("double").getClass());
+        assertEquals(Boolean.class, map.get("boolean").getClass());
+        assertEquals(Short.class, map.get("short").getClass());
+        assertEquals(5, map.getInt("double", 0));
+        assertEquals(5.0, map.getDouble("long", 0));
+        assertEquals(-1, map.getLong("short", -1));
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        AttributeMap map = new AttributeMap();
+        for (int i = 0; i < 20; i++) {
+            map.putInt("key" + i, i);
+        }
+        Iterator<Map.Entry<String, Object>> iterator = map.entrySet().iterator();
+        while (iterator.hasNext()) {
+            if ((Integer) iterator.next().getValue() % 2 == 0) {
+                iterator.remove();
+            }
+        }
+        assertEquals(10, map.size());
+        assertFalse(map.containsKey("key0"));
+        assertEquals(1, map.get("key1"));
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get("key1"));
+    }
+
+    @Test
+    public void testPosition() {
+        Position position = new Position();
+        position.set(Position.KEY_SATELLITES, 7);
+        position.set(Position.KEY_POWER, 12.5);
+        position.set(Position.KEY_IGNITION, true);
+        position.set(Position.KEY_ODOMETER, (Long) null);
+        assertEquals(7, position.getInteger(Position.KEY_SATELLITES));
+        assertEquals(12, position.getInteger(Position.KEY_POWER));
+        assertEquals(12.5, position.getDouble(Position.KEY_POWER));
+        assertTrue(position.getBoolean(Position.KEY_IGNITION));
+        assertFalse(position.hasAttribute(Position.KEY_ODOMETER));
+
+        position.setAttributes(Map.of(new String("sat"), 3));
+        assertSame(Position.KEY_SATELLITES, position.getAttributes().keySet().iterator().next());
+    }
+
+}
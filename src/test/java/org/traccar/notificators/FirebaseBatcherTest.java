@@ -0,0 +1,62 @@
+package org.traccar.notificators;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FirebaseBatcherTest {
+
+    private static List<String> createTokens(String prefix, int count) {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tokens.add(prefix + i);
+        }
+        return tokens;
+    }
+
+    @Test
+    public void testBatching() {
+        var transport = new FirebaseStubTransport();
+        Map<Long, Set<String>> invalidTokens = new HashMap<>();
+        var batcher = new FirebaseBatcher(
+                transport, Executors.newSingleThreadScheduledExecutor(), 60000, invalidTokens::putAll);
+
+        var message = new FirebaseTransport.Message("title", "body", false, 1);
+        batcher.add(message, 1, createTokens("first", 300));
+        batcher.add(message, 2, createTokens("second", 298));
+        batcher.add(message, 3, createTokens(FirebaseStubTransport.INVALID_PREFIX, 2));
+        batcher.add(new FirebaseTransport.Message("other", "body", false, 2), 1, List.of("token"));
+        batcher.flush();
+
+        var deliveries = transport.getDeliveries();
+        assertEquals(3, deliveries.size());
+        assertEquals(FirebaseBatcher.MAX_TOKENS, deliveries.get(0).tokens().size());
+        assertEquals(1, invalidTokens.size());
+        assertEquals(Set.of("invalid0", "invalid1"), invalidTokens.get(3L));
+    }
+
+    @Test
+    public void testFailure() {
+        FirebaseTransport transport = (message, tokens) -> CompletableFuture.failedFuture(new RuntimeException());
+        var batcher = new FirebaseBatcher(transport, Executors.newSingleThreadScheduledExecutor(), 60000, tokens -> {
+        });
+
+        var message = new FirebaseTransport.Message("title", "body", false, 1);
+        var first = batcher.add(message, 1, createTokens("first", 600));
+        var second = batcher.add(message, 2, List.of("token"));
+        batcher.flush();
+
+        assertTrue(first.isCompletedExceptionally());
+        assertTrue(second.isCompletedExceptionally());
+    }
+
+}
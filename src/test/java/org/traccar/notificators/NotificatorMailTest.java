@@ -0,0 +1,27 @@
+package org.traccar.notificators;
+
+import org.junit.jupiter.api.Test;
+import org.traccar.notification.NotificationMessage;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class NotificatorMailTest {
+
+    @Test
+    public void testDigest() {
+        var notificator = new NotificatorMail(null, null);
+        var digest = notificator.formatDigest(List.of(
+                new NotificationMessage("Alarm", "<b>Truck</b> & co", null, false),
+                new NotificationMessage("Online", "Car online", null, true)));
+
+        assertEquals("2 notifications", digest.subject());
+        assertTrue(digest.body().contains("&lt;b&gt;Truck&lt;/b&gt; &amp; co<br>"));
+        assertFalse(digest.body().contains("<b>"));
+        assertTrue(digest.priority());
+    }
+
+}
@@ -0,0 +1,33 @@
+package org.traccar.protocol;
+
+import org.junit.jupiter.api.Test;
+import org.traccar.ProtocolTest;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class MgaFrameDecoderTest extends ProtocolTest {
+
+    @Test
+    public void testDecode() throws Exception {
+
+        var decoder = inject(new MgaFrameDecoder());
+
+        verifyFrame(
+                binary("aa330040e20100acff4065c7042068890eeebd81bc8d4196ecd307d80c735123828d31eef92f1fc8901673369df83d659fb673f657bb55"),
+                decoder.decode(null, null, binary("aa330040e20100acff4065c7042068890eeebd81bc8d4196ecd307d80c735123828d31eef92f1fc8901673369df83d659fb673f657bb55")));
+
+        verifyFrame(
+                binary("aa330040e20100acff4065c7042068890eeebd81bc8d4196ecd307d80c735123828d31eef92f1fc8901673369df83d659fb673f657bb55"),
+                decoder.decode(null, null, binary("0102aaffff03aa330040e20100acff4065c7042068890eeebd81bc8d4196ecd307d80c735123828d31eef92f1fc8901673369df83d659fb673f657bb55")));
+
+        verifyFrame(
+                binary("aa330040e20100acff4065c7042068890eeebd81bc8d4196ecd307d80c735123828d31eef92f1fc8901673369df83d659fb673f657bb55"),
+                decoder.decode(null, null, binary("aa0900000000aa330040e20100acff4065c7042068890eeebd81bc8d4196ecd307d80c735123828d31eef92f1fc8901673369df83d659fb673f657bb55")));
+
+        assertNull(decoder.decode(null, null, binary("aa330040e20100acff4065c7042068890eeebd81bc8d4196ecd307d80c73")));
+
+        assertNull(decoder.decode(null, null, binary("0102030405")));
+
+    }
+
+}
@@ -0,0 +1,29 @@
+package org.traccar.protocol;
+
+import org.junit.jupiter.api.Test;
+import org.traccar.ProtocolTest;
+import org.traccar.model.Position;
+
+public class MgaProtocolDecoderTest extends ProtocolTest {
+
+    @Test
+    public void testDecode() throws Exception {
+
+        var decoder = inject(new MgaProtocolDecoder(null));
+
+        verifyPositions(decoder, binary(
+                "aa330040e20100acff4065c7042068890eeebd81bc8d4196ecd307d80c735123828d31eef92f1fc8901673369df83d659fb673f657bb55"));
+
+        verifyPositions(decoder, binary(
+                "aa630040e20100acfc4065c7042068890eeebd81bc8d4196ecd307d80c735123828d31eef92f1fc8901673369df83d659fb6730ec711b753f27fb45beeb25d3341312cd80fd16cc7579bf66f7c70cb78ca8b234c8d922a5e8b2c9698647f974b9d51e2aaa3fe55"));
+
+        verifyAttribute(decoder, binary(
+                "aa380040e20100ab01af112bd12316190000ac0f281fd2042e16030000f15365fbf0536500f11702b12e140378009600093c0106120f005f5737ca55"),
+                Position.KEY_RFID, 987654L);
+
+        verifyNull(decoder, binary(
+                "aa330040e20100acff4065c7042068890eeebd81bc8d4196ecd307d80c735123828d31eef92f1fc8901673369df83d659fb673f6574455"));
+
+    }
+
+}
@@ -0,0 +1,110 @@
+package org.traccar.reports;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.traccar.config.Config;
+import org.traccar.model.Device;
+import org.traccar.model.Event;
+import org.traccar.model.Permission;
+import org.traccar.model.Position;
+import org.traccar.model.User;
+import org.traccar.reports.common.ReportUtils;
+import org.traccar.storage.MemoryStorage;
+import org.traccar.storage.Storage;
+import org.traccar.storage.StorageException;
+import org.traccar.storage.query.Cursor;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EventsReportProviderTest {
+
+    private static final Date FROM = new Date(0);
+    private static final Date TO = new Date(100000);
+
+    private EventsReportProvider provider;
+    private long eventId;
+
+    private void addEvent(Storage storage, long deviceId, String type, String alarm) throws StorageException {
+        Event event = new Event(type, deviceId);
+        event.setId(++eventId);
+        event.setEventTime(new Date(eventId * 1000));
+        if (alarm != null) {
+            event.set(Position.KEY_ALARM, alarm);
+        }
+        storage.addObject(event, null);
+    }
+
+    @BeforeEach
+    public void init() throws StorageException {
+        Config config = new Config();
+        Storage storage = new MemoryStorage();
+        for (long deviceId = 1; deviceId <= 2; deviceId++) {
+            Device device = new Device();
+            device.setId(deviceId);
+            storage.addObject(device, null);
+            storage.addPermission(new Permission(User.class, 1, Device.class, deviceId));
+            addEvent(storage, deviceId, Event.TYPE_DEVICE_ONLINE, null);
+            addEvent(storage, deviceId, Event.TYPE_ALARM, Position.ALARM_SOS);
+            addEvent(storage, deviceId, Event.TYPE_DEVICE_OFFLINE, null);
+            addEvent(storage, deviceId, Event.TYPE_ALARM, Position.ALARM_VIBRATION);
+        }
+        provider = new EventsReportProvider(config, new ReportUtils(config, storage, null, null, null), storage);
+    }
+
+    private List<Event> getPage(
+            List<String> types, List<String> alarms, List<Event> previous, int limit) throws StorageException {
+        Cursor cursor = null;
+        if (previous != null) {
+            Event last = previous.get(previous.size() - 1);
+            cursor = new Cursor(last.getDeviceId(), last.getEventTime(), last.getId());
+        }
+        return provider.getObjectsPage(1, List.of(1L, 2L), List.of(), types, alarms, FROM, TO, cursor, limit);
+    }
+
+    private static List<Long> getIds(List<Event> events) {
+        return events.stream().map(Event::getId).toList();
+    }
+
+    @Test
+    public void testPage() throws StorageException {
+        var page = getPage(List.of(Event.ALL_EVENTS), List.of(), null, 3);
+        assertEquals(List.of(1L, 2L, 3L), getIds(page));
+
+        page = getPage(List.of(Event.ALL_EVENTS), List.of(), page, 3);
+        assertEquals(List.of(4L, 5L, 6L), getIds(page));
+
+        page = getPage(List.of(Event.ALL_EVENTS), List.of(), page, 3);
+        assertEquals(List.of(7L, 8L), getIds(page));
+    }
+
+    @Test
+    public void testPageTypes() throws StorageException {
+        var types = List.of(Event.TYPE_ALARM, Event.TYPE_DEVICE_OFFLINE);
+
+        var page = getPage(types, List.of(), null, 2);
+        assertEquals(List.of(2L, 3L), getIds(page));
+
+        page = getPage(types, List.of(), page, 2);
+        assertEquals(List.of(4L, 6L), getIds(page));
+
+        page = getPage(types, List.of(), page, 2);
+        assertEquals(List.of(7L, 8L), getIds(page));
+
+        page = getPage(types, List.of(), page, 2);
+        assertTrue(page.isEmpty());
+    }
+
+    @Test
+    public void testPageAlarms() throws StorageException {
+        var page = getPage(List.of(Event.TYPE_ALARM), List.of(Position.ALARM_SOS), null, 1);
+        assertEquals(List.of(2L), getIds(page));
+
+        page = getPage(List.of(Event.TYPE_ALARM), List.of(Position.ALARM_SOS), page, 1);
+        assertEquals(List.of(6L), getIds(page));
+    }
+
+}
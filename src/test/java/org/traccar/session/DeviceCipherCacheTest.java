@@ -0,0 +1,53 @@
+package org.traccar.session;
+
+import org.junit.jupiter.api.Test;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.Device;
+import org.traccar.model.Group;
+import org.traccar.model.ObjectOperation;
+
+import javax.crypto.Cipher;
+import java.security.GeneralSecurityException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class DeviceCipherCacheTest {
+
+    private static Cipher createCipher() throws GeneralSecurityException {
+        return Cipher.getInstance("AES/CTR/NoPadding");
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        var config = new Config();
+        config.setString(Keys.PROTOCOL_CIPHER_CACHE_SIZE, "2");
+        var cache = new DeviceCipherCache(config);
+
+        Cipher first = cache.getCipher(1, DeviceCipherCacheTest::createCipher);
+        cache.getCipher(2, DeviceCipherCacheTest::createCipher);
+        assertSame(first, cache.getCipher(1, DeviceCipherCacheTest::createCipher));
+
+        cache.getCipher(3, DeviceCipherCacheTest::createCipher);
+        assertEquals(2, cache.size());
+        assertSame(first, cache.getCipher(1, DeviceCipherCacheTest::createCipher));
+    }
+
+    @Test
+    public void testInvalidate() throws Exception {
+        var cache = new DeviceCipherCache(new Config());
+
+        Cipher first = cache.getCipher(1, DeviceCipherCacheTest::createCipher);
+        Cipher second = cache.getCipher(2, DeviceCipherCacheTest::createCipher);
+
+        cache.invalidateObject(true, Device.class, 1, ObjectOperation.UPDATE);
+        assertNotSame(first, cache.getCipher(1, DeviceCipherCacheTest::createCipher));
+        assertSame(second, cache.getCipher(2, DeviceCipherCacheTest::createCipher));
+
+        cache.invalidateObject(true, Group.class, 5, ObjectOperation.UPDATE);
+        assertEquals(0, cache.size());
+    }
+
+}
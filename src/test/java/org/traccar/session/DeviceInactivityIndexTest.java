@@ -0,0 +1,118 @@
+package org.traccar.session;
+
+import org.junit.jupiter.api.Test;
+import org.traccar.model.Device;
+import org.traccar.model.Group;
+import org.traccar.model.ObjectOperation;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DeviceInactivityIndexTest {
+
+    private static final long HOUR = 3600_000;
+
+    @Test
+    public void testNextThreshold() {
+        assertEquals(0, DeviceInactivityIndex.getNextThreshold(1000, 0, HOUR, 0));
+        assertEquals(1000 + HOUR, DeviceInactivityIndex.getNextThreshold(1000, HOUR, 0, 1000));
+        assertEquals(0, DeviceInactivityIndex.getNextThreshold(1000, HOUR, 0, 1000 + HOUR));
+        assertEquals(1000 + 3 * HOUR, DeviceInactivityIndex.getNextThreshold(1000, HOUR, HOUR, 1000 + 2 * HOUR));
+    }
+
+    @Test
+    public void testGroupAttribute() {
+        Group parent = new Group();
+        parent.setId(2);
+        parent.set(DeviceInactivityIndex.ATTRIBUTE_DEVICE_INACTIVITY_START, HOUR);
+        Group group = new Group();
+        group.setId(1);
+        group.setGroupId(2);
+        Device device = new Device();
+        device.setGroupId(1);
+        var groups = Map.of(1L, group, 2L, parent);
+
+        assertEquals(HOUR, DeviceInactivityIndex.getAttribute(
+                device, groups::get, DeviceInactivityIndex.ATTRIBUTE_DEVICE_INACTIVITY_START));
+    }
+
+    @Test
+    public void testPoll() {
+        var index = new DeviceInactivityIndex();
+        long time = System.currentTimeMillis();
+
+        Device device = new Device();
+        device.setId(1);
+        device.setLastUpdate(new Date(time));
+        device.set(DeviceInactivityIndex.ATTRIBUTE_DEVICE_INACTIVITY_START, HOUR);
+        index.update(device, id -> null);
+
+        index.schedule(new DeviceInactivityIndex.Entry(2, time, time + 2 * HOUR));
+        index.schedule(new DeviceInactivityIndex.Entry(2, time - HOUR, time)); // older update is ignored
+        index.schedule(new DeviceInactivityIndex.Entry(3, time, time + 2000 * HOUR));
+        assertEquals(3, index.size());
+
+        assertTrue(index.poll(time + HOUR - 1000).isEmpty());
+
+        var expired = index.poll(time + HOUR + DeviceInactivityIndex.TICK);
+        assertEquals(1, expired.size());
+        assertEquals(1, expired.get(0).deviceId());
+
+        expired = index.poll(time + 3 * HOUR);
+        assertEquals(1, expired.size());
+        assertEquals(2, expired.get(0).deviceId());
+
+        index.remove(3);
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testRefresh() {
+        var index = new DeviceInactivityIndex();
+        long time = System.currentTimeMillis();
+
+        index.schedule(new DeviceInactivityIndex.Entry(1, time, time + HOUR));
+
+        Device device = new Device();
+        device.setId(1);
+        device.setLastUpdate(new Date(time / 1000 * 1000)); // stored with second precision
+        device.set(DeviceInactivityIndex.ATTRIBUTE_DEVICE_INACTIVITY_START, 2 * HOUR);
+        index.refresh(device, id -> null, time);
+
+        assertTrue(index.poll(time + HOUR + DeviceInactivityIndex.TICK).isEmpty());
+        var expired = index.poll(time + 2 * HOUR);
+        assertEquals(1, expired.size());
+        assertEquals(time, expired.get(0).lastUpdate());
+
+        index.schedule(new DeviceInactivityIndex.Entry(1, time, time + 3 * HOUR));
+        device.removeAttribute(DeviceInactivityIndex.ATTRIBUTE_DEVICE_INACTIVITY_START);
+        index.refresh(device, id -> null, time);
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testChanges() {
+        var index = new DeviceInactivityIndex();
+        index.schedule(new DeviceInactivityIndex.Entry(3, 0, HOUR));
+
+        index.invalidateObject(true, Device.class, 1, ObjectOperation.UPDATE);
+        index.invalidateObject(true, Device.class, 2, ObjectOperation.ADD);
+        index.invalidateObject(true, Group.class, 5, ObjectOperation.UPDATE);
+        index.invalidateObject(true, Device.class, 2, ObjectOperation.DELETE);
+        index.invalidateObject(true, Device.class, 3, ObjectOperation.DELETE);
+
+        var changes = index.takeChanges();
+        assertEquals(Set.of(1L), changes.deviceIds());
+        assertEquals(Set.of(5L), changes.groupIds());
+        assertEquals(0, index.size());
+        assertTrue(index.takeChanges().isEmpty());
+
+        index.restoreChanges(changes);
+        assertEquals(Set.of(1L), index.takeChanges().deviceIds());
+    }
+
+}
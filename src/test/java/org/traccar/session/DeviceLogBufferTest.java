@@ -0,0 +1,82 @@
+package org.traccar.session;
+
+import org.junit.jupiter.api.Test;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.Device;
+import org.traccar.model.LogRecord;
+import org.traccar.model.ObjectOperation;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DeviceLogBufferTest {
+
+    private LogRecord record(String data) {
+        var address = new InetSocketAddress("127.0.0.1", 5000);
+        LogRecord record = new LogRecord(address, address);
+        record.setRawData(data.getBytes(StandardCharsets.US_ASCII), true);
+        return record;
+    }
+
+    @Test
+    public void testRing() {
+        Config config = new Config();
+        config.setString(Keys.LOGGER_DEVICE_BUFFER, "3");
+        DeviceLogBuffer buffer = new DeviceLogBuffer(config);
+
+        assertTrue(buffer.get(1).isEmpty());
+        for (int i = 1; i <= 5; i++) {
+            buffer.add(1, record("message" + i));
+        }
+        var records = buffer.get(1);
+        assertEquals(3, records.size());
+        assertEquals("message3", records.get(0).getData());
+        assertEquals("message5", records.get(2).getData());
+        assertTrue(buffer.get(2).isEmpty());
+    }
+
+    @Test
+    public void testSampling() {
+        DeviceLogBuffer buffer = new DeviceLogBuffer(new Config());
+
+        assertTrue(buffer.sample(1, 3));
+        assertTrue(buffer.sample(2, 3));
+        assertFalse(buffer.sample(1, 3));
+        assertFalse(buffer.sample(1, 3));
+        assertTrue(buffer.sample(1, 3));
+        assertFalse(buffer.sample(2, 3));
+        assertTrue(buffer.sample(2, 1));
+    }
+
+    @Test
+    public void testDelete() {
+        Config config = new Config();
+        config.setString(Keys.LOGGER_DEVICE_BUFFER, "3");
+        DeviceLogBuffer buffer = new DeviceLogBuffer(config);
+
+        buffer.add(1, record("message"));
+        buffer.add(2, record("message"));
+        buffer.sample(1, 2);
+        buffer.invalidateObject(true, Device.class, 1, ObjectOperation.UPDATE);
+        assertEquals(1, buffer.get(1).size());
+        buffer.invalidateObject(true, Device.class, 1, ObjectOperation.DELETE);
+        assertTrue(buffer.get(1).isEmpty());
+        assertTrue(buffer.sample(1, 2));
+        assertEquals(1, buffer.get(2).size());
+    }
+
+    @Test
+    public void testLazyData() {
+        var address = new InetSocketAddress("127.0.0.1", 5000);
+        LogRecord record = new LogRecord(address, address);
+        record.setRawData(new byte[] {0x01, (byte) 0xab}, true);
+        assertEquals("01ab", record.getData());
+        assertEquals("a\\r\\n", record("a\r\n").getData());
+    }
+
+}
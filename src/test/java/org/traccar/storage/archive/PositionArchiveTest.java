@@ -0,0 +1,132 @@
+package org.traccar.storage.archive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.traccar.config.Config;
+import org.traccar.config.Keys;
+import org.traccar.model.Position;
+import org.traccar.storage.query.Condition;
+import org.traccar.storage.query.Request;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PositionArchiveTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2024, 1);
+
+    private final List<Path> directories = new ArrayList<>();
+
+    @AfterEach
+    public void cleanup() throws IOException {
+        for (Path directory : directories) {
+            try (var files = Files.walk(directory)) {
+                for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private Position position(long deviceId, long id, long time) {
+        Position position = new Position("test");
+        position.setId(id);
+        position.setDeviceId(deviceId);
+        position.setFixTime(new Date(time));
+        return position;
+    }
+
+    private Position position(long id, long time) {
+        return position(1, id, time);
+    }
+
+    private String createDirectory() throws IOException {
+        Path directory = Files.createTempDirectory("archive");
+        directories.add(directory);
+        return directory.toString();
+    }
+
+    private PositionArchive createArchive(String path) {
+        Config config = new Config();
+        config.setString(Keys.DATABASE_ARCHIVE_PATH, path);
+        return new PositionArchive(config, new ObjectMapper());
+    }
+
+    @Test
+    public void testAppend() throws Exception {
+        String path = createDirectory();
+        PositionArchive archive = createArchive(path);
+        archive.append(1, MONTH, List.of(position(1, 1704067200000L), position(2, 1704067260000L)));
+        archive.append(1, MONTH, List.of(position(2, 1704067260000L), position(3, 1704067320000L)));
+        assertEquals(3, archive.read(1, MONTH).size());
+    }
+
+    @Test
+    public void testFind() throws Exception {
+        String path = createDirectory();
+        PositionArchive archive = createArchive(path);
+        archive.append(1, MONTH, List.of(position(10, 1704067200000L), position(20, 1704067260000L)));
+        assertEquals(20, archive.find(20).getId());
+        assertNull(archive.find(15));
+
+        var result = archive.merge(new Request(new Condition.Equals("id", 10)), Stream.empty()).toList();
+        assertEquals(1, result.size());
+        assertEquals(10, result.get(0).getId());
+
+        assertNotNull(createArchive(path).find(10));
+    }
+
+    @Test
+    public void testFindInterleaved() throws Exception {
+        String path = createDirectory();
+        PositionArchive archive = createArchive(path);
+        archive.append(1, MONTH, List.of(
+                position(1, 1, 1704067200000L), position(1, 3, 1704067260000L), position(1, 5, 1704067320000L)));
+        archive.append(2, MONTH, List.of(
+                position(2, 2, 1704067200000L), position(2, 4, 1704067260000L), position(2, 6, 1704067320000L)));
+
+        for (PositionArchive instance : List.of(archive, createArchive(path))) {
+            assertEquals(1, instance.find(3).getDeviceId());
+            assertEquals(2, instance.find(4).getDeviceId());
+        }
+
+        archive.remove(new Request(new Condition.Equals("id", 4)));
+        assertNull(archive.find(4));
+        assertEquals(2, archive.read(2, MONTH).size());
+        assertEquals(3, archive.read(1, MONTH).size());
+    }
+
+    @Test
+    public void testRemove() throws Exception {
+        String path = createDirectory();
+        PositionArchive archive = createArchive(path);
+        archive.append(1, MONTH, List.of(
+                position(1, 1704067200000L), position(2, 1704153600000L), position(3, 1704240000000L)));
+
+        archive.remove(new Request(new Condition.Equals("id", 1)));
+        assertEquals(2, archive.read(1, MONTH).size());
+
+        archive.remove(new Request(new Condition.And(
+                new Condition.Equals("deviceId", 1),
+                new Condition.Between("fixTime", new Date(1704153600000L), new Date(1704153600000L)))));
+        assertEquals(1, archive.read(1, MONTH).size());
+
+        archive.removeDevice(1);
+        assertTrue(archive.getMonths(1).isEmpty());
+        assertNull(archive.find(3));
+    }
+
+}
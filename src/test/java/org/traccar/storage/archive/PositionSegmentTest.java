@@ -0,0 +1,56 @@
+package org.traccar.storage.archive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.traccar.model.Position;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class PositionSegmentTest {
+
+    @Test
+    public void testWriteRead() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        Position position = new Position("gps103");
+        position.setId(100);
+        position.setFixTime(new Date(1700000000000L));
+        position.setDeviceTime(new Date(1700000000000L));
+        position.setServerTime(new Date(1700000001500L));
+        position.setValid(true);
+        position.setLatitude(35.1234567);
+        position.setLongitude(-51.7654321);
+        position.setSpeed(12.5);
+        position.setAltitude(123.456789012);
+        position.setGeofenceIds(List.of(1L, 2L));
+        position.set(Position.KEY_IGNITION, true);
+        position.set(Position.KEY_ODOMETER, 12345678901L);
+        position.set(Position.KEY_RSSI, 5);
+        position.set(Position.KEY_POWER, 12.8);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        PositionSegment.write(output, List.of(position), objectMapper);
+        var result = PositionSegment.read(new ByteArrayInputStream(output.toByteArray()), 7, objectMapper).get(0);
+
+        assertEquals(7, result.getDeviceId());
+        assertEquals(100, result.getId());
+        assertEquals("gps103", result.getProtocol());
+        assertEquals(position.getFixTime(), result.getFixTime());
+        assertEquals(position.getServerTime(), result.getServerTime());
+        assertEquals(true, result.getValid());
+        assertEquals(35.1234567, result.getLatitude(), 1e-7);
+        assertEquals(-51.7654321, result.getLongitude(), 1e-7);
+        assertEquals(12.5, result.getSpeed(), 0.001);
+        assertEquals(123.456789012, result.getAltitude());
+        assertNull(result.getAddress());
+        assertEquals(List.of(1L, 2L), result.getGeofenceIds());
+        assertEquals(position.getAttributes(), result.getAttributes());
+    }
+
+}
@@ -0,0 +1,26 @@
+package org.traccar.storage.query;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CursorTest {
+
+    @Test
+    public void testEncodeDecode() {
+        var cursor = Cursor.decode(new Cursor(12, new Date(1700000000000L), 345).encode());
+        assertEquals(12, cursor.getDeviceId());
+        assertEquals(new Date(1700000000000L), cursor.getTime());
+        assertEquals(345, cursor.getId());
+    }
+
+    @Test
+    public void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> Cursor.decode("abc"));
+        assertThrows(IllegalArgumentException.class, () -> Cursor.decode("not a token"));
+    }
+
+}